@@ -0,0 +1,147 @@
+package ru.practicum.shareit.bench;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+/*
+ * Синтетические данные для бенчмарков: H2 в памяти со схемой сервера
+ */
+public final class BenchData {
+    public static final String RARE_WORD = "zircon";
+    private static final String[] WORDS = {
+        "drill", "hammer", "saw", "ladder", "tent", "bike", "kayak", "camera", "lens", "tripod",
+        "projector", "speaker", "grill", "mixer", "blender", "vacuum", "heater", "fan", "lamp", "table",
+        "chair", "sofa", "board", "ski", "helmet", "rope", "lock", "pump", "jack", "wrench",
+        "scooter", "stroller", "guitar", "piano", "drum", "console", "router", "printer", "scanner", "monitor",
+        "cordless", "electric", "portable", "heavy", "compact", "wireless", "folding", "steel", "wooden", "old"
+    };
+    private static final int BATCH_SIZE = 1000;
+    //allocationSize of Booking.id: the server takes the ids (v - 50, v] for a value v of bookings_seq
+    private static final int BOOKING_ID_BLOCK = 50;
+
+    private BenchData() {
+    }
+
+    public static Connection openDatabase(String name) throws SQLException {
+        Connection connection = DriverManager.getConnection("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("RUNSCRIPT FROM 'classpath:schema.sql'");
+        }
+        return connection;
+    }
+
+    public static long insertUser(Connection connection, String name) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "insert into users (name, email) values (?, ?)", Statement.RETURN_GENERATED_KEYS)) {
+            statement.setString(1, name);
+            statement.setString(2, name + "@bench.test");
+            statement.executeUpdate();
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                keys.next();
+                return keys.getLong(1);
+            }
+        }
+    }
+
+    //every thousandth item mentions RARE_WORD, every tenth one is unavailable
+    public static void insertItems(Connection connection, long ownerId, int count, ItemSink sink) throws SQLException {
+        Random random = new Random(42);
+        connection.setAutoCommit(false);
+        try (PreparedStatement statement = connection.prepareStatement(
+                "insert into items (id, name, description, is_available, owner_id) values (?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= count; i++) {
+                String name = word(random) + " " + word(random);
+                String description = word(random) + " " + word(random) + " " + word(random)
+                        + (i % 1000 == 0 ? " " + RARE_WORD : "");
+                boolean available = i % 10 != 0;
+                statement.setLong(1, i);
+                statement.setString(2, name);
+                statement.setString(3, description);
+                statement.setBoolean(4, available);
+                statement.setLong(5, ownerId);
+                statement.addBatch();
+                if (available) {
+                    sink.accept(i, name, description);
+                }
+                if (i % BATCH_SIZE == 0) {
+                    statement.executeBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+
+    //bookings of one item by one booker, one day each, half of them in the past
+    public static void insertBookings(Connection connection, long itemId, long bookerId, int count)
+            throws SQLException {
+        LocalDateTime start = LocalDateTime.now().minusDays(count / 2);
+        long firstId = reserveBookingIds(connection, count);
+        connection.setAutoCommit(false);
+        try (PreparedStatement statement = connection.prepareStatement(
+                "insert into bookings (id, start_date, end_date, item_id, booker_id, booking_state) " +
+                        "values (?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < count; i++) {
+                statement.setLong(1, firstId + i);
+                statement.setTimestamp(2, Timestamp.valueOf(start.plusDays(i)));
+                statement.setTimestamp(3, Timestamp.valueOf(start.plusDays(i).plusHours(12)));
+                statement.setLong(4, itemId);
+                statement.setLong(5, bookerId);
+                statement.setString(6, i % 3 == 0 ? "WAITING" : "APPROVED");
+                statement.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    statement.executeBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+
+    //count ids in a row from bookings_seq, returns the first one. The sequence restarts past them, so neither
+    //the blocks of the server nor the column default hand them out again
+    public static long reserveBookingIds(Connection connection, int count) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            long firstId;
+            try (ResultSet next = statement.executeQuery("select nextval('bookings_seq')")) {
+                next.next();
+                firstId = next.getLong(1);
+            }
+            statement.execute("alter sequence bookings_seq restart with " + (firstId + count + BOOKING_ID_BLOCK));
+            return firstId;
+        }
+    }
+
+    public static void insertComments(Connection connection, long itemId, long authorId, int count)
+            throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "insert into comments (text, item_id, author_id, created) values (?, ?, ?, ?)")) {
+            for (int i = 0; i < count; i++) {
+                statement.setString(1, "comment " + i);
+                statement.setLong(2, itemId);
+                statement.setLong(3, authorId);
+                statement.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    @FunctionalInterface
+    public interface ItemSink {
+        void accept(long id, String name, String description);
+    }
+}
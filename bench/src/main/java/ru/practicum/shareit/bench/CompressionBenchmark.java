@@ -0,0 +1,92 @@
+package ru.practicum.shareit.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.shareit.item.CommentDto;
+import ru.practicum.shareit.item.ItemInfoDto;
+import ru.practicum.shareit.user.UserDto;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/*
+ * Цена gzip на странице /items из itemCount вещей: сериализация с сжатием на сервере
+ * и распаковка в gateway против одной сериализации. Размеры тела печатаются при запуске
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompressionBenchmark {
+
+    @Param({"10", "100"})
+    private int itemCount;
+
+    private List<ItemInfoDto> items;
+    private byte[] gzipped;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        UserDto owner = new UserDto(1L, "owner", "owner@bench.test");
+        LocalDateTime created = LocalDateTime.now();
+        items = new ArrayList<>();
+        for (int i = 0; i < itemCount; i++) {
+            List<CommentDto> comments = new ArrayList<>();
+            for (int j = 0; j < 3; j++) {
+                comments.add(new CommentDto((long) j, "comment " + j + " on item " + i, "booker", created));
+            }
+            items.add(new ItemInfoDto((long) i, "item " + i, "description of item " + i, true, owner,
+                    new ItemInfoDto.ItemBookingDto(1L, 2L), new ItemInfoDto.ItemBookingDto(2L, 2L), comments, null));
+        }
+        byte[] json = objectMapper.writeValueAsBytes(items);
+        gzipped = gzip(json);
+        System.out.printf("%n%d items: json %d bytes, gzip %d bytes%n", itemCount, json.length, gzipped.length);
+    }
+
+    @Benchmark
+    public byte[] json() throws IOException {
+        return objectMapper.writeValueAsBytes(items);
+    }
+
+    @Benchmark
+    public byte[] jsonGzip() throws IOException {
+        return gzip(objectMapper.writeValueAsBytes(items));
+    }
+
+    @Benchmark
+    public byte[] gunzip() throws IOException {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            return gzip.readAllBytes();
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(result)) {
+            gzip.write(bytes);
+        }
+        return result.toByteArray();
+    }
+}
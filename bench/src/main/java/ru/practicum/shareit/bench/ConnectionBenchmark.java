@@ -0,0 +1,118 @@
+package ru.practicum.shareit.bench;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Сколько раз запрос к серверу берёт соединение из пула и как долго его держит.
+ * Числа печатаются в конце каждого прогона, openInView=true - поведение до появления транзакций в сервисах
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConnectionBenchmark {
+    private static final String POOL = "shareit";
+
+    @Param({"true", "false"})
+    private boolean openInView;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private long ownerId;
+    private long bookerId;
+    private MeterRegistry meterRegistry;
+    private long acquiredBefore;
+    private double usageBefore;
+    private final AtomicLong requests = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        context = ServiceBenchmark.startServer("connection_" + openInView, WebApplicationType.SERVLET,
+                "--server.port=0", "--spring.jpa.open-in-view=" + openInView);
+        try (Connection connection = context.getBean(DataSource.class).getConnection()) {
+            ownerId = BenchData.insertUser(connection, "owner");
+            bookerId = BenchData.insertUser(connection, "booker");
+            BenchData.insertItems(connection, ownerId, 1, (id, name, description) -> {
+            });
+            BenchData.insertBookings(connection, 1L, bookerId, 10);
+            BenchData.insertComments(connection, 1L, bookerId, 10);
+        }
+        client = HttpClient.newHttpClient();
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        meterRegistry = context.getBean(MeterRegistry.class);
+        acquiredBefore = acquireTimer().count();
+        usageBefore = usageTimer().totalTime(TimeUnit.MILLISECONDS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        long count = requests.get();
+        System.out.printf("%nopenInView=%s: %.2f connection acquisitions, %.3f ms connection held per request%n",
+                openInView,
+                (double) (acquireTimer().count() - acquiredBefore) / count,
+                (usageTimer().totalTime(TimeUnit.MILLISECONDS) - usageBefore) / count);
+        context.close();
+    }
+
+    @Benchmark
+    public String getItem() throws IOException, InterruptedException {
+        return get("/items/1", ownerId);
+    }
+
+    @Benchmark
+    public String getBookings() throws IOException, InterruptedException {
+        return get("/bookings?state=ALL&from=0&size=10", bookerId);
+    }
+
+    @Benchmark
+    public String getUser() throws IOException, InterruptedException {
+        return get("/users/" + bookerId, bookerId);
+    }
+
+    private String get(String path, long userId) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("X-Sharer-User-Id", String.valueOf(userId))
+                .GET()
+                .build();
+        requests.incrementAndGet();
+        return client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    private Timer acquireTimer() {
+        return meterRegistry.get("hikaricp.connections.acquire").tag("pool", POOL).timer();
+    }
+
+    private Timer usageTimer() {
+        return meterRegistry.get("hikaricp.connections.usage").tag("pool", POOL).timer();
+    }
+}
@@ -0,0 +1,73 @@
+package ru.practicum.shareit.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.shareit.item.CommentDto;
+import ru.practicum.shareit.item.ItemInfoDto;
+import ru.practicum.shareit.user.UserDto;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Цена проксирования ответа сервера в gateway: разбор в дерево объектов и повторная сериализация
+ * против копирования байтов как есть. Ответ - страница /items из itemCount вещей
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GatewayProxyBenchmark {
+
+    @Param({"10", "100"})
+    private int itemCount;
+
+    private byte[] serverResponse;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        UserDto owner = new UserDto(1L, "owner", "owner@bench.test");
+        LocalDateTime created = LocalDateTime.now();
+        List<ItemInfoDto> items = new ArrayList<>();
+        for (int i = 0; i < itemCount; i++) {
+            List<CommentDto> comments = new ArrayList<>();
+            for (int j = 0; j < 3; j++) {
+                comments.add(new CommentDto((long) j, "comment " + j, "booker", created));
+            }
+            items.add(new ItemInfoDto((long) i, "item " + i, "description of item " + i, true, owner,
+                    new ItemInfoDto.ItemBookingDto(1L, 2L), new ItemInfoDto.ItemBookingDto(2L, 2L), comments, null));
+        }
+        serverResponse = objectMapper.writeValueAsBytes(items);
+    }
+
+    //what the gateway did before: LinkedHashMap trees written again by the message converter
+    @Benchmark
+    public byte[] objectTree() throws IOException {
+        Object body = objectMapper.readValue(serverResponse, Object.class);
+        return objectMapper.writeValueAsBytes(body);
+    }
+
+    @Benchmark
+    public byte[] passThrough() {
+        return Arrays.copyOf(serverResponse, serverResponse.length);
+    }
+}
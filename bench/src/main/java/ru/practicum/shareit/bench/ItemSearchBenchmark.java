@@ -0,0 +1,87 @@
+package ru.practicum.shareit.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.item.ItemSearchIndex;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Поиск первой страницы вещей: инвертированный индекс против запроса ItemRepository.searchAvailable
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ItemSearchBenchmark {
+    //same statement as ItemRepository.searchAvailable, ids only
+    private static final String LIKE_QUERY = "select id from items where is_available = true and " +
+            "(upper(name) like upper(concat('%', ?, '%')) escape '\\' " +
+            "or upper(description) like upper(concat('%', ?, '%')) escape '\\') " +
+            "order by id limit 10 offset 0";
+
+    @Param({"10000", "100000", "1000000"})
+    private int itemCount;
+
+    @Param({"drill", BenchData.RARE_WORD})
+    private String text;
+
+    private Connection connection;
+    private PreparedStatement likeQuery;
+    private ItemSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = BenchData.openDatabase("search_" + itemCount);
+        long ownerId = BenchData.insertUser(connection, "owner");
+        index = new ItemSearchIndex();
+        BenchData.insertItems(connection, ownerId, itemCount, index::put);
+        likeQuery = connection.prepareStatement(LIKE_QUERY);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public long[] invertedIndex() {
+        return index.search(text, 0, 10);
+    }
+
+    @Benchmark
+    public List<Long> repositoryQuery() throws SQLException {
+        likeQuery.setString(1, text);
+        likeQuery.setString(2, text);
+        List<Long> result = new ArrayList<>();
+        try (ResultSet resultSet = likeQuery.executeQuery()) {
+            while (resultSet.next()) {
+                result.add(resultSet.getLong(1));
+            }
+        }
+        return result;
+    }
+}
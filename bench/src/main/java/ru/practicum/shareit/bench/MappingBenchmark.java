@@ -0,0 +1,72 @@
+package ru.practicum.shareit.bench;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingInfoDto;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.State;
+import ru.practicum.shareit.item.CommentDto;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemInfoDto;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserMapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Маппинг и сериализация без базы данных
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingBenchmark {
+
+    private Booking booking;
+    private ItemInfoDto itemInfoDto;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        User owner = new User(1L, "owner", "owner@bench.test");
+        User booker = new User(2L, "booker", "booker@bench.test");
+        Item item = new Item(1L, "drill", "cordless drill", true, owner, null, null);
+        LocalDateTime start = LocalDateTime.now();
+        booking = new Booking(1L, start, start.plusHours(12), item, booker, State.APPROVED);
+
+        List<CommentDto> comments = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            comments.add(new CommentDto((long) i, "comment " + i, booker.getName(), start));
+        }
+        itemInfoDto = new ItemInfoDto(item.getId(), item.getName(), item.getDescription(), item.getAvailable(),
+                UserMapper.toUserDto(owner), new ItemInfoDto.ItemBookingDto(1L, 2L), new ItemInfoDto.ItemBookingDto(2L, 2L),
+                comments, null);
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    @Benchmark
+    public BookingInfoDto toBookingInfoDto() {
+        return BookingMapper.toBookingInfoDto(booking);
+    }
+
+    @Benchmark
+    public byte[] serializeItemInfoDto() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(itemInfoDto);
+    }
+}
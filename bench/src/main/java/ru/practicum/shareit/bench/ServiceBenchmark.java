@@ -0,0 +1,124 @@
+package ru.practicum.shareit.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.BookingInfoDto;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingShortDto;
+import ru.practicum.shareit.custom.CustomPageRequest;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemInfoDto;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.ItemRepository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Горячие пути сервера поверх H2 в памяти, контекст Spring поднимается без веб-сервера
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+    private static final CustomPageRequest PAGE = CustomPageRequest.of(0, 10);
+
+    @Param({"10", "1000"})
+    private int bookingCount;
+
+    private ConfigurableApplicationContext context;
+    private ItemMapper itemMapper;
+    private BookingService bookingService;
+    private BookingRepository bookingRepository;
+    private Item item;
+    private List<Long> itemIds;
+    private long bookerId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        context = startServer("service_" + bookingCount);
+        try (Connection connection = context.getBean(DataSource.class).getConnection()) {
+            long ownerId = BenchData.insertUser(connection, "owner");
+            bookerId = BenchData.insertUser(connection, "booker");
+            BenchData.insertItems(connection, ownerId, 1, (id, name, description) -> {
+            });
+            BenchData.insertBookings(connection, 1L, bookerId, bookingCount);
+            BenchData.insertComments(connection, 1L, bookerId, 10);
+        }
+        itemMapper = context.getBean(ItemMapper.class);
+        bookingService = context.getBean(BookingService.class);
+        bookingRepository = context.getBean(BookingRepository.class);
+        item = context.getBean(ItemRepository.class).findById(1L).orElseThrow();
+        itemIds = List.of(item.getId());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ItemInfoDto toItemInfoDto() {
+        return itemMapper.toItemInfoDto(item);
+    }
+
+    //запросы последнего и следующего бронирования, которые toItemInfoDto делает для вещи
+    @Benchmark
+    public List<BookingShortDto> findLastBookings() {
+        return bookingRepository.findLastBookings(itemIds, LocalDateTime.now());
+    }
+
+    @Benchmark
+    public List<BookingShortDto> findNextBookings() {
+        return bookingRepository.findNextBookings(itemIds, LocalDateTime.now());
+    }
+
+    @Benchmark
+    public List<BookingInfoDto> getAllByUserId() {
+        return bookingService.getAllByUserId(bookerId, "ALL", PAGE);
+    }
+
+    static ConfigurableApplicationContext startServer(String database) {
+        return startServer(database, WebApplicationType.NONE);
+    }
+
+    //аргументы командной строки перекрывают application.properties, профиль test переключает на H2
+    static ConfigurableApplicationContext startServer(String database, WebApplicationType webApplicationType,
+                                                      String... args) {
+        List<String> commandLine = new ArrayList<>(List.of("--spring.datasource.url=jdbc:h2:mem:" + database,
+                "--spring.jpa.properties.hibernate.show_sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.org.springframework=WARN",
+                "--logging.level.org.springframework.transaction.interceptor=WARN",
+                "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN"));
+        commandLine.addAll(List.of(args));
+        return new SpringApplicationBuilder(ShareItServer.class)
+                .web(webApplicationType)
+                .profiles("test")
+                .run(commandLine.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,49 @@
+package ru.practicum.shareit.bench.load;
+
+import java.util.Arrays;
+
+/*
+ * Задержки одного эндпоинта в наносекундах; каждый поток пишет в свой экземпляр, отчет строится после слияния
+ */
+public class LatencyRecorder {
+    private long[] latencies = new long[1024];
+    private int size;
+    private int errors;
+
+    public void record(long nanos, boolean success) {
+        if (size == latencies.length) {
+            latencies = Arrays.copyOf(latencies, size * 2);
+        }
+        latencies[size++] = nanos;
+        if (!success) {
+            errors++;
+        }
+    }
+
+    public void merge(LatencyRecorder other) {
+        if (size + other.size > latencies.length) {
+            latencies = Arrays.copyOf(latencies, size + other.size);
+        }
+        System.arraycopy(other.latencies, 0, latencies, size, other.size);
+        size += other.size;
+        errors += other.errors;
+    }
+
+    public int count() {
+        return size;
+    }
+
+    public int errors() {
+        return errors;
+    }
+
+    //nearest-rank процентиль, массив сортируется на месте
+    public long percentile(double percentile) {
+        if (size == 0) {
+            return 0;
+        }
+        Arrays.sort(latencies, 0, size);
+        int rank = (int) Math.ceil(percentile / 100 * size);
+        return latencies[Math.max(rank, 1) - 1];
+    }
+}
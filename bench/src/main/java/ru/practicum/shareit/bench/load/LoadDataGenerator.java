@@ -0,0 +1,166 @@
+package ru.practicum.shareit.bench.load;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import ru.practicum.shareit.bench.BenchData;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+/*
+ * Заполнение пустой базы сервера пакетными insert-ами в обход REST, чтобы миллион строк грузился за секунды
+ */
+public class LoadDataGenerator {
+    static final String[] WORDS = {
+        "drill", "hammer", "saw", "ladder", "tent", "bike", "kayak", "camera", "lens", "tripod",
+        "projector", "speaker", "grill", "mixer", "blender", "vacuum", "heater", "fan", "lamp", "table",
+        "cordless", "electric", "portable", "heavy", "compact", "wireless", "folding", "steel", "wooden", "old"
+    };
+    private static final int BATCH_SIZE = 1000;
+
+    private final Connection connection;
+    private final Random random = new Random(42);
+
+    public LoadDataGenerator(Connection connection) {
+        this.connection = connection;
+    }
+
+    public void createSchema() throws SQLException {
+        ScriptUtils.executeSqlScript(connection, new ClassPathResource("schema.sql"));
+    }
+
+    public void generate(LoadDataset dataset) throws SQLException {
+        long started = System.currentTimeMillis();
+        connection.setAutoCommit(false);
+        insertUsers(dataset);
+        insertRequests(dataset);
+        insertItems(dataset);
+        insertBookings(dataset);
+        insertComments(dataset);
+        connection.commit();
+        connection.setAutoCommit(true);
+        dataset.setFirstIds(minId("users"), minId("items"), minId("requests"), minId("bookings"));
+        System.out.printf("Generated %d users, %d items, %d requests and %d bookings in %d ms%n", dataset.getUsers(),
+                dataset.getItems(), dataset.getRequests(), dataset.getBookings(),
+                System.currentTimeMillis() - started);
+    }
+
+    private void insertUsers(LoadDataset dataset) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "insert into users (name, email) values (?, ?)")) {
+            for (int i = 0; i < dataset.getUsers(); i++) {
+                statement.setString(1, "user" + i);
+                statement.setString(2, "user" + i + "@load.test");
+                add(statement, i);
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private void insertRequests(LoadDataset dataset) throws SQLException {
+        long firstUserId = minId("users");
+        try (PreparedStatement statement = connection.prepareStatement(
+                "insert into requests (description, created, requestor_id) values (?, ?, ?)")) {
+            for (int i = 0; i < dataset.getRequests(); i++) {
+                statement.setString(1, "need a " + word());
+                statement.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now().minusHours(i)));
+                statement.setLong(3, firstUserId + dataset.requestorOf(i));
+                add(statement, i);
+            }
+            statement.executeBatch();
+        }
+    }
+
+    //каждая пятая вещь создана в ответ на запрос, каждая десятая недоступна
+    private void insertItems(LoadDataset dataset) throws SQLException {
+        long firstUserId = minId("users");
+        long firstRequestId = dataset.getRequests() > 0 ? minId("requests") : 0;
+        try (PreparedStatement statement = connection.prepareStatement(
+                "insert into items (name, description, is_available, owner_id, request_id) values (?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < dataset.getItems(); i++) {
+                statement.setString(1, word() + " " + word());
+                statement.setString(2, word() + " " + word() + " " + word());
+                statement.setBoolean(3, i % 10 != 0);
+                statement.setLong(4, firstUserId + dataset.ownerOf(i));
+                if (i % 5 == 0 && dataset.getRequests() > 0) {
+                    statement.setLong(5, firstRequestId + random.nextInt(dataset.getRequests()));
+                } else {
+                    statement.setNull(5, Types.BIGINT);
+                }
+                add(statement, i);
+            }
+            statement.executeBatch();
+        }
+    }
+
+    //первое бронирование каждой вещи в прошлом и подтверждено, остальные идут неделя за неделей вперед
+    private void insertBookings(LoadDataset dataset) throws SQLException {
+        long firstUserId = minId("users");
+        long firstItemId = minId("items");
+        LocalDateTime origin = LocalDateTime.now().minusDays(15);
+        //ids in a row, as LoadDataset.bookingId counts them, taken from the sequence the server uses
+        long firstId = BenchData.reserveBookingIds(connection, dataset.getBookings());
+        try (PreparedStatement statement = connection.prepareStatement(
+                "insert into bookings (id, start_date, end_date, item_id, booker_id, booking_state) " +
+                        "values (?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < dataset.getBookings(); i++) {
+                int item = dataset.itemOfBooking(i);
+                int booking = i % dataset.getBookingsPerItem();
+                LocalDateTime start = origin.plusWeeks(booking);
+                statement.setLong(1, firstId + i);
+                statement.setTimestamp(2, Timestamp.valueOf(start));
+                statement.setTimestamp(3, Timestamp.valueOf(start.plusDays(2)));
+                statement.setLong(4, firstItemId + item);
+                statement.setLong(5, firstUserId + dataset.bookerOf(item, booking));
+                statement.setString(6, booking > 0 && i % 4 == 0 ? "WAITING" : "APPROVED");
+                add(statement, i);
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private void insertComments(LoadDataset dataset) throws SQLException {
+        long firstUserId = minId("users");
+        long firstItemId = minId("items");
+        try (PreparedStatement statement = connection.prepareStatement(
+                "insert into comments (text, item_id, author_id, created) values (?, ?, ?, ?)")) {
+            int count = 0;
+            for (int item = 0; item < dataset.getItems(); item++) {
+                for (int i = 0; i < dataset.getCommentsPerItem(); i++) {
+                    statement.setString(1, "nice " + word());
+                    statement.setLong(2, firstItemId + item);
+                    statement.setLong(3, firstUserId + dataset.bookerOf(item, 0));
+                    statement.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now().minusDays(20)));
+                    add(statement, count++);
+                }
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private void add(PreparedStatement statement, int index) throws SQLException {
+        statement.addBatch();
+        if ((index + 1) % BATCH_SIZE == 0) {
+            statement.executeBatch();
+        }
+    }
+
+    private long minId(String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("select min(id) from " + table)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private String word() {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+}
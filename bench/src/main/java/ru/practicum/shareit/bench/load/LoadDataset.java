@@ -0,0 +1,101 @@
+package ru.practicum.shareit.bench.load;
+
+/*
+ * Раскладка сгенерированных данных: по ней драйвер нагрузки выбирает валидные id без запросов к базе
+ */
+public class LoadDataset {
+    private final int users;
+    private final int itemsPerUser;
+    private final int requestsPerUser;
+    private final int bookingsPerItem;
+    private final int commentsPerItem;
+    private long firstUserId;
+    private long firstItemId;
+    private long firstRequestId;
+    private long firstBookingId;
+
+    public LoadDataset(int users, int itemsPerUser, int requestsPerUser, int bookingsPerItem, int commentsPerItem) {
+        if (users < 2) {
+            throw new IllegalArgumentException("At least two users are needed: an owner and a booker");
+        }
+        this.users = users;
+        this.itemsPerUser = itemsPerUser;
+        this.requestsPerUser = requestsPerUser;
+        this.bookingsPerItem = bookingsPerItem;
+        this.commentsPerItem = commentsPerItem;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public int getItems() {
+        return users * itemsPerUser;
+    }
+
+    public int getRequests() {
+        return users * requestsPerUser;
+    }
+
+    public int getBookings() {
+        return getItems() * bookingsPerItem;
+    }
+
+    public int getItemsPerUser() {
+        return itemsPerUser;
+    }
+
+    public int getRequestsPerUser() {
+        return requestsPerUser;
+    }
+
+    public int getBookingsPerItem() {
+        return bookingsPerItem;
+    }
+
+    public int getCommentsPerItem() {
+        return commentsPerItem;
+    }
+
+    void setFirstIds(long userId, long itemId, long requestId, long bookingId) {
+        firstUserId = userId;
+        firstItemId = itemId;
+        firstRequestId = requestId;
+        firstBookingId = bookingId;
+    }
+
+    //индексы ниже считаются от нуля, id - от первых id, выданных базой
+
+    public long userId(int user) {
+        return firstUserId + user;
+    }
+
+    public long itemId(int item) {
+        return firstItemId + item;
+    }
+
+    public long requestId(int request) {
+        return firstRequestId + request;
+    }
+
+    public long bookingId(int booking) {
+        return firstBookingId + booking;
+    }
+
+    public int ownerOf(int item) {
+        return item / itemsPerUser;
+    }
+
+    public int requestorOf(int request) {
+        return request / requestsPerUser;
+    }
+
+    //бронирования вещи делают соседи владельца, сам владелец свою вещь не бронирует
+    public int bookerOf(int item, int booking) {
+        return (ownerOf(item) + 1 + booking % (users - 1)) % users;
+    }
+
+    public int itemOfBooking(int booking) {
+        return booking / bookingsPerItem;
+    }
+}
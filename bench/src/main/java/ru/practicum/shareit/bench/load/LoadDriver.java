@@ -0,0 +1,81 @@
+package ru.practicum.shareit.bench.load;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+ * Замкнутый цикл: каждый поток отправляет следующий запрос только после ответа на предыдущий,
+ * так что нагрузка задается числом потоков, а не темпом запросов
+ */
+public class LoadDriver {
+    private final String baseUrl;
+    private final LoadDataset dataset;
+    private final HttpClient client;
+
+    public LoadDriver(String baseUrl, LoadDataset dataset) {
+        this.baseUrl = baseUrl;
+        this.dataset = dataset;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public Map<LoadEndpoint, LatencyRecorder> run(int threads, Duration warmup, Duration duration) throws Exception {
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long measureTo = measureFrom + duration.toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Map<LoadEndpoint, LatencyRecorder>>> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Random random = new Random(i);
+            workers.add(executor.submit(() -> work(random, measureFrom, measureTo)));
+        }
+
+        Map<LoadEndpoint, LatencyRecorder> result = new EnumMap<>(LoadEndpoint.class);
+        for (LoadEndpoint endpoint : LoadEndpoint.values()) {
+            result.put(endpoint, new LatencyRecorder());
+        }
+        for (Future<Map<LoadEndpoint, LatencyRecorder>> worker : workers) {
+            worker.get().forEach((endpoint, recorder) -> result.get(endpoint).merge(recorder));
+        }
+        executor.shutdown();
+        return result;
+    }
+
+    private Map<LoadEndpoint, LatencyRecorder> work(Random random, long measureFrom, long measureTo)
+            throws InterruptedException {
+        Map<LoadEndpoint, LatencyRecorder> recorders = new EnumMap<>(LoadEndpoint.class);
+        for (LoadEndpoint endpoint : LoadEndpoint.values()) {
+            recorders.put(endpoint, new LatencyRecorder());
+        }
+        long now = System.nanoTime();
+        while (now < measureTo) {
+            LoadEndpoint endpoint = LoadEndpoint.pick(random);
+            boolean success;
+            try {
+                HttpResponse<byte[]> response = client.send(
+                        endpoint.request(baseUrl, dataset, random).timeout(Duration.ofSeconds(30)).build(),
+                        HttpResponse.BodyHandlers.ofByteArray());
+                success = response.statusCode() < 300;
+            } catch (IOException e) {
+                success = false;
+            }
+            long finished = System.nanoTime();
+            if (now >= measureFrom) {
+                recorders.get(endpoint).record(finished - now, success);
+            }
+            now = finished;
+        }
+        return recorders;
+    }
+}
@@ -0,0 +1,143 @@
+package ru.practicum.shareit.bench.load;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+/*
+ * Смесь запросов к gateway: в основном чтение списков и карточек, немного создания бронирований и отзывов
+ */
+public enum LoadEndpoint {
+    GET_ITEM(20) {
+        @Override
+        HttpRequest.Builder request(String baseUrl, LoadDataset dataset, Random random) {
+            int item = random.nextInt(dataset.getItems());
+            return get(baseUrl, "/items/" + dataset.itemId(item), dataset.userId(dataset.ownerOf(item)));
+        }
+    },
+    GET_OWNER_ITEMS(15) {
+        @Override
+        HttpRequest.Builder request(String baseUrl, LoadDataset dataset, Random random) {
+            return get(baseUrl, "/items?from=0&size=10", randomUserId(dataset, random));
+        }
+    },
+    SEARCH_ITEMS(10) {
+        @Override
+        HttpRequest.Builder request(String baseUrl, LoadDataset dataset, Random random) {
+            String text = LoadDataGenerator.WORDS[random.nextInt(LoadDataGenerator.WORDS.length)];
+            return get(baseUrl, "/items/search?text=" + text + "&from=0&size=10", randomUserId(dataset, random));
+        }
+    },
+    GET_BOOKINGS(15) {
+        @Override
+        HttpRequest.Builder request(String baseUrl, LoadDataset dataset, Random random) {
+            return get(baseUrl, "/bookings?state=ALL&from=0&size=10", randomUserId(dataset, random));
+        }
+    },
+    GET_OWNER_BOOKINGS(10) {
+        @Override
+        HttpRequest.Builder request(String baseUrl, LoadDataset dataset, Random random) {
+            return get(baseUrl, "/bookings/owner?state=ALL&from=0&size=10", randomUserId(dataset, random));
+        }
+    },
+    GET_BOOKING(5) {
+        @Override
+        HttpRequest.Builder request(String baseUrl, LoadDataset dataset, Random random) {
+            int booking = random.nextInt(dataset.getBookings());
+            int item = dataset.itemOfBooking(booking);
+            int booker = dataset.bookerOf(item, booking % dataset.getBookingsPerItem());
+            return get(baseUrl, "/bookings/" + dataset.bookingId(booking), dataset.userId(booker));
+        }
+    },
+    GET_REQUESTS(5) {
+        @Override
+        HttpRequest.Builder request(String baseUrl, LoadDataset dataset, Random random) {
+            return get(baseUrl, "/requests?from=0&size=10", randomUserId(dataset, random));
+        }
+    },
+    GET_ALL_REQUESTS(5) {
+        @Override
+        HttpRequest.Builder request(String baseUrl, LoadDataset dataset, Random random) {
+            return get(baseUrl, "/requests/all?from=0&size=10", randomUserId(dataset, random));
+        }
+    },
+    GET_USER(5) {
+        @Override
+        HttpRequest.Builder request(String baseUrl, LoadDataset dataset, Random random) {
+            long userId = randomUserId(dataset, random);
+            return get(baseUrl, "/users/" + userId, userId);
+        }
+    },
+    //новые бронирования уходят далеко в будущее, чтобы не пересекаться со сгенерированными
+    ADD_BOOKING(5) {
+        @Override
+        HttpRequest.Builder request(String baseUrl, LoadDataset dataset, Random random) {
+            int item = availableItem(dataset, random);
+            LocalDateTime start = LocalDateTime.now().plusDays(60 + random.nextInt(3000))
+                    .plusSeconds(random.nextInt(86400)).withNano(0);
+            String body = "{\"itemId\":" + dataset.itemId(item) + ",\"start\":\"" + start
+                    + "\",\"end\":\"" + start.plusDays(1) + "\"}";
+            return post(baseUrl, "/bookings", dataset.userId(dataset.bookerOf(item, 0)), body);
+        }
+    },
+    //автор - арендатор первого, уже завершенного бронирования вещи
+    ADD_COMMENT(5) {
+        @Override
+        HttpRequest.Builder request(String baseUrl, LoadDataset dataset, Random random) {
+            int item = random.nextInt(dataset.getItems());
+            return post(baseUrl, "/items/" + dataset.itemId(item) + "/comment",
+                    dataset.userId(dataset.bookerOf(item, 0)), "{\"text\":\"load test comment\"}");
+        }
+    };
+
+    private final int weight;
+
+    LoadEndpoint(int weight) {
+        this.weight = weight;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    abstract HttpRequest.Builder request(String baseUrl, LoadDataset dataset, Random random);
+
+    public static LoadEndpoint pick(Random random) {
+        int total = 0;
+        for (LoadEndpoint endpoint : values()) {
+            total += endpoint.weight;
+        }
+        int point = random.nextInt(total);
+        for (LoadEndpoint endpoint : values()) {
+            point -= endpoint.weight;
+            if (point < 0) {
+                return endpoint;
+            }
+        }
+        throw new IllegalStateException("Weights do not add up");
+    }
+
+    private static long randomUserId(LoadDataset dataset, Random random) {
+        return dataset.userId(random.nextInt(dataset.getUsers()));
+    }
+
+    //каждая десятая вещь сгенерирована недоступной
+    private static int availableItem(LoadDataset dataset, Random random) {
+        int item = random.nextInt(dataset.getItems());
+        return item % 10 == 0 ? (item + 1) % dataset.getItems() : item;
+    }
+
+    private static HttpRequest.Builder get(String baseUrl, String path, long userId) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("X-Sharer-User-Id", String.valueOf(userId))
+                .GET();
+    }
+
+    private static HttpRequest.Builder post(String baseUrl, String path, long userId, String body) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("X-Sharer-User-Id", String.valueOf(userId))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+    }
+}
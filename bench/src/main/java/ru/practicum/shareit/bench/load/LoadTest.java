@@ -0,0 +1,266 @@
+package ru.practicum.shareit.bench.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.h2.tools.Server;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Нагрузочный тест цепочки gateway -> server -> БД.
+ * Генерирует данные, поднимает server и gateway отдельными процессами из собранных jar, гоняет смесь запросов
+ * и печатает p50/p99/p999 по эндпоинтам. Без jdbcUrl база - H2 в памяти этого процесса, отданная серверу по TCP.
+ *
+ * Аргументы имеют вид key=value, см. DEFAULTS; serverArgs и gatewayArgs - дополнительные аргументы
+ * Spring Boot через запятую, например serverArgs=--shareit.search.mode=index
+ *
+ * ramp=16,64,256,1024 гоняет ступени с растущим числом потоков и ищет наибольшую,
+ * которую цепочка держит без ошибок и с p99 не выше p99Limit мс. java задает JVM для server и gateway,
+ * virtualThreads=true включает в них виртуальные потоки - так сравниваются два режима под одной нагрузкой
+ */
+public class LoadTest {
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        DEFAULTS.put("users", "1000");
+        DEFAULTS.put("itemsPerUser", "10");
+        DEFAULTS.put("requestsPerUser", "2");
+        DEFAULTS.put("bookingsPerItem", "5");
+        DEFAULTS.put("commentsPerItem", "2");
+        DEFAULTS.put("threads", "16");
+        DEFAULTS.put("warmup", "15");
+        DEFAULTS.put("duration", "60");
+        DEFAULTS.put("jdbcUrl", "");
+        DEFAULTS.put("jdbcUser", "postgres");
+        DEFAULTS.put("jdbcPassword", "");
+        DEFAULTS.put("h2Port", "19092");
+        DEFAULTS.put("serverPort", "19090");
+        DEFAULTS.put("gatewayPort", "18080");
+        DEFAULTS.put("serverJar", "");
+        DEFAULTS.put("gatewayJar", "");
+        DEFAULTS.put("serverArgs", "");
+        DEFAULTS.put("gatewayArgs", "");
+        DEFAULTS.put("ramp", "");
+        DEFAULTS.put("p99Limit", "1000");
+        DEFAULTS.put("java", "");
+        DEFAULTS.put("virtualThreads", "false");
+        DEFAULTS.put("result", "load-result.json");
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        LoadDataset dataset = new LoadDataset(intOption(options, "users"), intOption(options, "itemsPerUser"),
+                intOption(options, "requestsPerUser"), intOption(options, "bookingsPerItem"),
+                intOption(options, "commentsPerItem"));
+        boolean h2 = options.get("jdbcUrl").isEmpty();
+
+        Server h2Server = null;
+        Connection connection;
+        String serverJdbcUrl;
+        if (h2) {
+            connection = DriverManager.getConnection("jdbc:h2:mem:shareit_load;DB_CLOSE_DELAY=-1", "load", "load");
+            h2Server = Server.createTcpServer("-tcpPort", options.get("h2Port")).start();
+            serverJdbcUrl = "jdbc:h2:tcp://localhost:" + options.get("h2Port") + "/mem:shareit_load";
+        } else {
+            connection = DriverManager.getConnection(options.get("jdbcUrl"), options.get("jdbcUser"),
+                    options.get("jdbcPassword"));
+            serverJdbcUrl = options.get("jdbcUrl");
+        }
+
+        List<Process> processes = new ArrayList<>();
+        try (connection) {
+            LoadDataGenerator generator = new LoadDataGenerator(connection);
+            generator.createSchema();
+            generator.generate(dataset);
+
+            String serverUrl = "http://localhost:" + options.get("serverPort");
+            List<String> serverArgs = new ArrayList<>(List.of(
+                    "--server.port=" + options.get("serverPort"),
+                    "--spring.datasource.url=" + serverJdbcUrl,
+                    "--spring.datasource.username=" + (h2 ? "load" : options.get("jdbcUser")),
+                    "--spring.datasource.password=" + (h2 ? "load" : options.get("jdbcPassword")),
+                    "--spring.datasource.driver-class-name=" + (h2 ? "org.h2.Driver" : "org.postgresql.Driver"),
+                    "--spring.sql.init.platform=" + (h2 ? "h2" : "postgres"),
+                    "--spring.jpa.properties.hibernate.show_sql=false",
+                    "--logging.level.org.springframework.transaction.interceptor=INFO",
+                    "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=INFO"));
+            serverArgs.add("--shareit.threads.virtual=" + options.get("virtualThreads"));
+            serverArgs.addAll(listOption(options, "serverArgs"));
+            processes.add(start(options, options.get("serverJar"), serverArgs, "server"));
+            awaitReady(serverUrl + "/users");
+
+            String gatewayUrl = "http://localhost:" + options.get("gatewayPort");
+            List<String> gatewayArgs = new ArrayList<>(List.of(
+                    "--server.port=" + options.get("gatewayPort"),
+                    "--shareit-server.url=" + serverUrl,
+                    "--logging.level.ru.practicum.shareit.client=INFO",
+                    "--shareit.threads.virtual=" + options.get("virtualThreads")));
+            gatewayArgs.addAll(listOption(options, "gatewayArgs"));
+            processes.add(start(options, options.get("gatewayJar"), gatewayArgs, "gateway"));
+            awaitReady(gatewayUrl + "/actuator/health");
+
+            Duration warmup = Duration.ofSeconds(intOption(options, "warmup"));
+            Duration duration = Duration.ofSeconds(intOption(options, "duration"));
+            LoadDriver driver = new LoadDriver(gatewayUrl, dataset);
+            if (options.get("ramp").isEmpty()) {
+                System.out.printf("Running %s threads for %s s after %s s of warmup%n", options.get("threads"),
+                        duration.getSeconds(), warmup.getSeconds());
+                Map<LoadEndpoint, LatencyRecorder> result = driver.run(intOption(options, "threads"), warmup,
+                        duration);
+                report(result, duration, options);
+            } else {
+                ramp(driver, warmup, duration, options);
+            }
+        } finally {
+            for (Process process : processes) {
+                process.destroy();
+                process.waitFor();
+            }
+            if (h2Server != null) {
+                h2Server.stop();
+            }
+        }
+    }
+
+    private static void report(Map<LoadEndpoint, LatencyRecorder> result, Duration duration,
+                               Map<String, String> options) throws Exception {
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        System.out.printf("%-20s %8s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "rps", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (Map.Entry<LoadEndpoint, LatencyRecorder> entry : result.entrySet()) {
+            LatencyRecorder recorder = entry.getValue();
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("count", recorder.count());
+            row.put("errors", recorder.errors());
+            row.put("rps", (double) recorder.count() / duration.getSeconds());
+            row.put("p50", millis(recorder.percentile(50)));
+            row.put("p99", millis(recorder.percentile(99)));
+            row.put("p999", millis(recorder.percentile(99.9)));
+            row.put("max", millis(recorder.percentile(100)));
+            endpoints.put(entry.getKey().name(), row);
+            System.out.printf("%-20s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", entry.getKey(), row.get("count"),
+                    row.get("errors"), row.get("rps"), row.get("p50"), row.get("p99"), row.get("p999"),
+                    row.get("max"));
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("options", options);
+        report.put("endpoints", endpoints);
+        writeReport(report, options);
+    }
+
+    //одна строка на ступень: все эндпоинты вместе
+    private static void ramp(LoadDriver driver, Duration warmup, Duration duration,
+                             Map<String, String> options) throws Exception {
+        double p99Limit = Double.parseDouble(options.get("p99Limit"));
+        List<Map<String, Object>> stages = new ArrayList<>();
+        int maxConcurrency = 0;
+        System.out.printf("%8s %8s %7s %9s %9s %9s %9s%n", "threads", "count", "errors", "rps", "p50 ms", "p99 ms",
+                "max ms");
+        for (String level : listOption(options, "ramp")) {
+            int threads = Integer.parseInt(level.trim());
+            LatencyRecorder total = new LatencyRecorder();
+            driver.run(threads, warmup, duration).values().forEach(total::merge);
+
+            Map<String, Object> stage = new LinkedHashMap<>();
+            stage.put("threads", threads);
+            stage.put("count", total.count());
+            stage.put("errors", total.errors());
+            stage.put("rps", (double) total.count() / duration.getSeconds());
+            stage.put("p50", millis(total.percentile(50)));
+            stage.put("p99", millis(total.percentile(99)));
+            stage.put("max", millis(total.percentile(100)));
+            stages.add(stage);
+            System.out.printf("%8d %8d %7d %9.1f %9.2f %9.2f %9.2f%n", threads, stage.get("count"),
+                    stage.get("errors"), stage.get("rps"), stage.get("p50"), stage.get("p99"), stage.get("max"));
+            if (total.errors() == 0 && (double) stage.get("p99") <= p99Limit) {
+                maxConcurrency = threads;
+            }
+        }
+        System.out.printf("Max concurrent connections without errors and with p99 <= %.0f ms: %d%n",
+                p99Limit, maxConcurrency);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("options", options);
+        report.put("stages", stages);
+        report.put("maxConcurrency", maxConcurrency);
+        writeReport(report, options);
+    }
+
+    private static void writeReport(Map<String, Object> report, Map<String, String> options) throws IOException {
+        File file = new File(options.get("result"));
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file, report);
+        System.out.println("Report written to " + file.getAbsolutePath());
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static Process start(Map<String, String> options, String jar, List<String> args, String name)
+            throws Exception {
+        if (jar.isEmpty() || !new File(jar).isFile()) {
+            throw new IllegalArgumentException("No " + name + " jar at '" + jar + "', build it with mvn install");
+        }
+        List<String> command = new ArrayList<>();
+        command.add(options.get("java").isEmpty()
+                ? System.getProperty("java.home") + File.separator + "bin" + File.separator + "java"
+                : options.get("java"));
+        command.add("-jar");
+        command.add(jar);
+        command.addAll(args);
+        File log = new File("load-" + name + ".log");
+        System.out.println("Starting " + name + ", log: " + log.getAbsolutePath());
+        return new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log).start();
+    }
+
+    private static void awaitReady(String url) throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).header("X-Sharer-User-Id", "1").build();
+        long deadline = System.currentTimeMillis() + 120_000;
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 500) {
+                    return;
+                }
+            } catch (IOException e) {
+                //еще не слушает порт
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException(url + " did not become ready in two minutes");
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>(DEFAULTS);
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0 || !DEFAULTS.containsKey(arg.substring(0, separator))) {
+                throw new IllegalArgumentException("Unknown argument " + arg + ", expected one of " + DEFAULTS.keySet());
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    private static int intOption(Map<String, String> options, String name) {
+        return Integer.parseInt(options.get(name));
+    }
+
+    private static List<String> listOption(Map<String, String> options, String name) {
+        return options.get(name).isEmpty() ? List.of() : Arrays.asList(options.get(name).split(","));
+    }
+}
@@ -1,63 +1,72 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.GatewayResponseCache;
 import ru.practicum.shareit.custom.BookingDateException;
 import ru.practicum.shareit.custom.UnsupportedStateException;
 
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl,
+                         CloseableHttpAsyncClient httpClient,
+                         ObjectMapper objectMapper,
+                         GatewayResponseCache responseCache) {
+        super(httpClient, serverUrl + API_PREFIX, objectMapper, responseCache);
     }
 
-    public ResponseEntity<Object> getAllBookingsByUserId(long userId,
-                                                         String stateParam,
-                                                         Integer from,
-                                                         Integer size) {
+    public CompletableFuture<ResponseEntity<Object>> getAllBookingsByUserId(
+            long userId,
+            String stateParam,
+            Integer from,
+            Integer size,
+            String cursor) {
 
         validateState(stateParam);
 
         Map<String, Object> params = Map.of("state", stateParam, "from", from, "size", size);
-        return get("?state={state}&from={from}&size={size}", userId, params);
+        return getPage("?state={state}&from={from}&size={size}", userId, params, cursor);
     }
 
-    public ResponseEntity<Object> getAllBookingsByOwnerId(long ownerId,
-                                                          String stateParam,
-                                                          Integer from,
-                                                          Integer size) {
+    public CompletableFuture<ResponseEntity<Object>> getAllBookingsByOwnerId(
+            long ownerId,
+            String stateParam,
+            Integer from,
+            Integer size,
+            String cursor) {
         validateState(stateParam);
         Map<String, Object> params = Map.of("state", stateParam, "from", from, "size", size);
-        return get("/owner?state={state}&from={from}&size={size}", ownerId, params);
+        return getPage("/owner?state={state}&from={from}&size={size}", ownerId, params, cursor);
 
     }
 
-    public ResponseEntity<Object> getAllBookingsById(long userId, Long bookingId) {
+    public CompletableFuture<ResponseEntity<Object>> getAllBookingsById(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> addBooking(long bookerId, BookingDto bookingDto) {
+    public CompletableFuture<ResponseEntity<Object>> addBooking(long bookerId, BookingDto bookingDto) {
         validateBookingDate(bookingDto);
         return post("", bookerId, bookingDto);
     }
 
-    public ResponseEntity<Object> updateBooking(long ownerId, Boolean approved, Long bookingId) {
+    public CompletableFuture<ResponseEntity<Object>> addBookings(long bookerId, List<BookingDto> bookingDtos) {
+        bookingDtos.forEach(this::validateBookingDate);
+        return post("/batch", bookerId, bookingDtos);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> updateBooking(long ownerId, Boolean approved, Long bookingId) {
         return patch("/" + bookingId + "?approved=" + approved, ownerId);
     }
 
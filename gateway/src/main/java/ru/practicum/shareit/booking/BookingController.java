@@ -9,8 +9,13 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.Create;
 
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 @RequestMapping(path = "/bookings")
@@ -18,52 +23,74 @@ import javax.validation.constraints.PositiveOrZero;
 @Slf4j
 @Validated
 public class BookingController {
+    private static final int MAX_BATCH_SIZE = 500;
+
     private final BookingClient bookingClient;
 
     @GetMapping
-    public ResponseEntity<Object> getAllBookingsByUserId(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                         @RequestParam(name = "state", defaultValue = "all")
-                                                         String stateParam,
-                                                         @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
-                                                         Integer from,
-                                                         @Positive @RequestParam(name = "size", defaultValue = "10")
-                                                         Integer size) {
+    public CompletableFuture<ResponseEntity<Object>> getAllBookingsByUserId(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestParam(name = "state", defaultValue = "all")
+            String stateParam,
+            @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
+            Integer from,
+            @Positive @RequestParam(name = "size", defaultValue = "10")
+            Integer size,
+            @RequestParam(name = "cursor", required = false)
+            String cursor) {
         log.info("Get all bookings by user id: {}, state: {}", userId, stateParam);
-        return bookingClient.getAllBookingsByUserId(userId, stateParam, from, size);
+        return bookingClient.getAllBookingsByUserId(userId, stateParam, from, size, cursor);
 
     }
 
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> getAllBookingsByOwnerId(@RequestHeader("X-Sharer-User-Id") long ownerId,
-                                                          @RequestParam(name = "state", defaultValue = "all")
-                                                          String stateParam,
-                                                          @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
-                                                          Integer from,
-                                                          @Positive @RequestParam(name = "size", defaultValue = "10")
-                                                          Integer size) {
+    public CompletableFuture<ResponseEntity<Object>> getAllBookingsByOwnerId(
+            @RequestHeader("X-Sharer-User-Id") long ownerId,
+            @RequestParam(name = "state", defaultValue = "all")
+            String stateParam,
+            @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
+            Integer from,
+            @Positive @RequestParam(name = "size", defaultValue = "10")
+            Integer size,
+            @RequestParam(name = "cursor", required = false)
+            String cursor) {
         log.info("Get all bookings by owner id: {}, state: {}", ownerId, stateParam);
-        return bookingClient.getAllBookingsByOwnerId(ownerId, stateParam, from, size);
+        return bookingClient.getAllBookingsByOwnerId(ownerId, stateParam, from, size, cursor);
     }
 
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getAllBookingsById(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                     @PathVariable Long bookingId) {
+    public CompletableFuture<ResponseEntity<Object>> getAllBookingsById(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @PathVariable Long bookingId) {
         log.info("Get all bookings by booking id: {}", bookingId);
         return bookingClient.getAllBookingsById(userId, bookingId);
     }
 
     @PostMapping
-    public ResponseEntity<Object> addBooking(@RequestHeader(name = "X-Sharer-User-Id") long bookerId,
-                                             @Validated({Create.class}) @RequestBody BookingDto bookingDto) {
+    public CompletableFuture<ResponseEntity<Object>> addBooking(
+            @RequestHeader(name = "X-Sharer-User-Id") long bookerId,
+            @Validated({Create.class}) @RequestBody BookingDto bookingDto) {
         log.info("Add booking: {}, booker id: {}", bookingDto, bookerId);
         return bookingClient.addBooking(bookerId, bookingDto);
     }
 
+    //the groups of the method: every booking of the list is validated as a new one
+    @PostMapping("/batch")
+    @Validated({Create.class})
+    public CompletableFuture<ResponseEntity<Object>> addBookings(
+            @RequestHeader(name = "X-Sharer-User-Id") long bookerId,
+            @NotEmpty(groups = {Create.class}) @Size(max = MAX_BATCH_SIZE, groups = {Create.class})
+            @RequestBody List<@Valid BookingDto> bookingDtos) {
+        log.info("Add {} bookings, booker id: {}", bookingDtos.size(), bookerId);
+        return bookingClient.addBookings(bookerId, bookingDtos);
+    }
+
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> updateBooking(@RequestHeader(name = "X-Sharer-User-Id") long ownerId,
-                                                @RequestParam Boolean approved,
-                                                @PathVariable Long bookingId) {
+    public CompletableFuture<ResponseEntity<Object>> updateBooking(
+            @RequestHeader(name = "X-Sharer-User-Id") long ownerId,
+            @RequestParam Boolean approved,
+            @PathVariable Long bookingId) {
         log.info("Update booking with id: {}, owner id: {}", bookingId, ownerId);
         return bookingClient.updateBooking(ownerId, approved, bookingId);
     }
@@ -1,103 +1,283 @@
 package ru.practicum.shareit.client;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPInputStream;
 
-import org.springframework.http.HttpEntity;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.util.EntityUtils;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
-import org.springframework.web.client.HttpStatusCodeException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.util.UriBuilderFactory;
 
+/*
+ * Запросы к серверу не занимают поток: ответ приходит в CompletableFuture,
+ * контроллер возвращает его как есть, и Spring MVC дописывает ответ асинхронно.
+ * Тело и заголовки ответа сервера отдаются клиенту без разбора JSON.
+ * Чтения, которые можно кэшировать, идут через getCached, любое успешное изменение сбрасывает
+ * связанные с ним ответы в GatewayResponseCache
+ */
+@Slf4j
 public class BaseClient {
-    protected final RestTemplate rest;
+    //the body is written again by the gateway, unpacked, so framing, encoding and connection headers
+    //of the server are not copied
+    private static final Set<String> FRAMING_HEADERS = Set.of(HttpHeaders.CONTENT_LENGTH.toLowerCase(),
+            HttpHeaders.TRANSFER_ENCODING.toLowerCase(), HttpHeaders.CONTENT_ENCODING.toLowerCase(),
+            HttpHeaders.CONNECTION.toLowerCase(), "keep-alive");
 
-    public BaseClient(RestTemplate rest) {
-        this.rest = rest;
+    private final CloseableHttpAsyncClient httpClient;
+    private final UriBuilderFactory uriBuilderFactory;
+    private final ObjectMapper objectMapper;
+    private final GatewayResponseCache responseCache;
+    private final String region;
+
+    public BaseClient(CloseableHttpAsyncClient httpClient, String baseUrl, ObjectMapper objectMapper,
+                      GatewayResponseCache responseCache) {
+        this.httpClient = httpClient;
+        this.uriBuilderFactory = new DefaultUriBuilderFactory(baseUrl);
+        this.objectMapper = objectMapper;
+        this.responseCache = responseCache;
+        this.region = baseUrl.substring(baseUrl.lastIndexOf('/') + 1);
     }
 
-    protected ResponseEntity<Object> get(String path) {
+    protected CompletableFuture<ResponseEntity<Object>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected CompletableFuture<ResponseEntity<Object>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected CompletableFuture<ResponseEntity<Object>> get(String path, Long userId,
+                                                            @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    //cursor of keyset pagination is passed through to the server as is, the next one comes back in X-Next-Cursor
+    protected CompletableFuture<ResponseEntity<Object>> getPage(String path, Long userId,
+                                                                Map<String, Object> parameters,
+                                                                @Nullable String cursor) {
+        if (cursor == null) {
+            return get(path, userId, parameters);
+        }
+        return get(path + "&cursor={cursor}", userId, withCursor(parameters, cursor));
+    }
+
+    protected CompletableFuture<ResponseEntity<Object>> getCached(String path, @Nullable String ifNoneMatch) {
+        return getCached(path, null, null, ifNoneMatch);
+    }
+
+    protected CompletableFuture<ResponseEntity<Object>> getCached(String path, long userId,
+                                                                  @Nullable String ifNoneMatch) {
+        return getCached(path, userId, null, ifNoneMatch);
+    }
+
+    //the response may be served without a call to the server until the ttl of the cache runs out,
+    //after that a response with an etag is revalidated with a conditional request
+    protected CompletableFuture<ResponseEntity<Object>> getCached(String path, @Nullable Long userId,
+                                                                  @Nullable Map<String, Object> parameters,
+                                                                  @Nullable String ifNoneMatch) {
+        URI uri = expand(path, parameters);
+        if (!responseCache.isEnabled()) {
+            return send(HttpMethod.GET, uri, userId, null, ifNoneMatch);
+        }
+        GatewayResponseCache.Key key = new GatewayResponseCache.Key(region, uri.toString(), userId);
+        GatewayResponseCache.Entry cached = responseCache.get(key);
+        if (cached != null && cached.isFresh()) {
+            log.debug("{} {}: cached", HttpMethod.GET, uri);
+            return CompletableFuture.completedFuture(notModifiedOr(cached.getResponse(), ifNoneMatch));
+        }
+        long generation = responseCache.generation();
+        if (cached != null && cached.getEtag() != null) {
+            return send(HttpMethod.GET, uri, userId, null, cached.getEtag()).thenApply(response -> {
+                if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                    return notModifiedOr(responseCache.revalidate(key, cached, generation), ifNoneMatch);
+                }
+                responseCache.put(key, response, generation);
+                return notModifiedOr(response, ifNoneMatch);
+            });
+        }
+        return send(HttpMethod.GET, uri, userId, null, ifNoneMatch).thenApply(response -> {
+            responseCache.put(key, response, generation);
+            return response;
+        });
+    }
+
+    protected CompletableFuture<ResponseEntity<Object>> getCachedPage(String path, Long userId,
+                                                                      Map<String, Object> parameters,
+                                                                      @Nullable String cursor) {
+        if (cursor == null) {
+            return getCached(path, userId, parameters, null);
+        }
+        return getCached(path + "&cursor={cursor}", userId, withCursor(parameters, cursor), null);
+    }
+
+    protected <T> CompletableFuture<ResponseEntity<Object>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> post(String path, long userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> post(String path, Long userId,
+                                                                 @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> put(String path, long userId,
+                                                                @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, Long userId,
+                                                                  @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected CompletableFuture<ResponseEntity<Object>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
+    protected CompletableFuture<ResponseEntity<Object>> delete(String path, long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected CompletableFuture<ResponseEntity<Object>> delete(String path, Long userId,
+                                                               @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+    private <T> CompletableFuture<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path,
+                                                                             Long userId,
+                                                                             @Nullable Map<String, Object> parameters,
+                                                                             @Nullable T body) {
+        CompletableFuture<ResponseEntity<Object>> response = send(method, expand(path, parameters), userId, body,
+                null);
+        if (method == HttpMethod.GET) {
+            return response;
+        }
+        return response.thenApply(result -> {
+            if (result.getStatusCode().is2xxSuccessful()) {
+                responseCache.invalidate(region);
+            }
+            return result;
+        });
+    }
+
+    private URI expand(String path, @Nullable Map<String, Object> parameters) {
+        return parameters != null ? uriBuilderFactory.expand(path, parameters) : uriBuilderFactory.expand(path);
+    }
 
-        ResponseEntity<Object> shareitServerResponse;
+    //the client already has the cached version, so it gets 304 without a body
+    private static ResponseEntity<Object> notModifiedOr(ResponseEntity<Object> response,
+                                                        @Nullable String ifNoneMatch) {
+        String etag = response.getHeaders().getETag();
+        if (ifNoneMatch == null || etag == null) {
+            return response;
+        }
+        boolean matches = Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .anyMatch(tag -> tag.equals("*") || tag.equals(etag));
+        return matches ? ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build() : response;
+    }
+
+    private static Map<String, Object> withCursor(Map<String, Object> parameters, String cursor) {
+        Map<String, Object> pageParameters = new HashMap<>(parameters);
+        pageParameters.put("cursor", cursor);
+        return pageParameters;
+    }
+
+    private <T> CompletableFuture<ResponseEntity<Object>> send(HttpMethod method, URI uri, Long userId,
+                                                               @Nullable T body, @Nullable String ifNoneMatch) {
+        HttpUriRequest request;
         try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+            request = buildRequest(method, uri, userId, body, ifNoneMatch);
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<ResponseEntity<Object>> result = new CompletableFuture<>();
+        httpClient.execute(request, new FutureCallback<>() {
+            @Override
+            public void completed(HttpResponse response) {
+                log.debug("{} {}: {}", method, uri, response.getStatusLine().getStatusCode());
+                try {
+                    result.complete(prepareGatewayResponse(response));
+                } catch (IOException | RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            }
+
+            @Override
+            public void failed(Exception exception) {
+                log.debug("{} {} failed: {}", method, uri, exception.getMessage());
+                result.completeExceptionally(exception);
+            }
+
+            @Override
+            public void cancelled() {
+                result.cancel(false);
             }
-        } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+        });
+        return result;
+    }
+
+    private <T> HttpUriRequest buildRequest(HttpMethod method, URI uri, Long userId, @Nullable T body,
+                                            @Nullable String ifNoneMatch) throws JsonProcessingException {
+        RequestBuilder builder = RequestBuilder.create(method.name())
+                .setUri(uri);
+        defaultHeaders(userId).forEach((name, values) -> values.forEach(value -> builder.addHeader(name, value)));
+        if (ifNoneMatch != null) {
+            builder.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
         }
-        return prepareGatewayResponse(shareitServerResponse);
+        if (body != null) {
+            builder.setEntity(new ByteArrayEntity(objectMapper.writeValueAsBytes(body), ContentType.APPLICATION_JSON));
+        }
+        return builder.build();
     }
 
     private HttpHeaders defaultHeaders(Long userId) {
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
         headers.setAccept(List.of(MediaType.APPLICATION_JSON));
         if (userId != null) {
             headers.set("X-Sharer-User-Id", String.valueOf(userId));
@@ -105,17 +285,22 @@ public class BaseClient {
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+    //the body is passed through as bytes: no object tree is built and serialized again for the response
+    private ResponseEntity<Object> prepareGatewayResponse(HttpResponse response) throws IOException {
+        HttpHeaders headers = new HttpHeaders();
+        for (Header header : response.getAllHeaders()) {
+            if (!FRAMING_HEADERS.contains(header.getName().toLowerCase())) {
+                headers.add(header.getName(), header.getValue());
+            }
         }
-
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
-
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+        HttpEntity entity = response.getEntity();
+        byte[] body = entity == null ? null : EntityUtils.toByteArray(entity);
+        Header encoding = response.getFirstHeader(HttpHeaders.CONTENT_ENCODING);
+        if (body != null && encoding != null && "gzip".equalsIgnoreCase(encoding.getValue())) {
+            try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+                body = gzip.readAllBytes();
+            }
         }
-
-        return responseBuilder.build();
+        return ResponseEntity.status(response.getStatusLine().getStatusCode()).headers(headers).body(body);
     }
 }
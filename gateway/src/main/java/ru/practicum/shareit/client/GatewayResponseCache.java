@@ -0,0 +1,149 @@
+package ru.practicum.shareit.client;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/*
+ * Кэш успешных ответов сервера на GET. Ключ - адрес запроса и X-Sharer-User-Id, потому что
+ * владелец и остальные пользователи видят одну вещь по-разному. Размер ограничен суммой байтов тел,
+ * запись отдается без обращения к серверу в течение ttl. Потом запись с ETag перепроверяется условным GET,
+ * и на 304 сервер не собирает ответ заново, а запись без ETag удаляется. Запись с ETag, которую не
+ * перепроверяли дольше etag-ttl, тоже удаляется. Изменение через gateway сбрасывает
+ * все области, которые оно затрагивает: в вещи встроены владелец и бронирования, в запросы - вещи
+ */
+@Component
+@Slf4j
+public class GatewayResponseCache {
+    private static final Map<String, Set<String>> AFFECTED_REGIONS = Map.of(
+            "users", Set.of("users", "items", "requests"),
+            "items", Set.of("items", "requests"),
+            "bookings", Set.of("items"),
+            "requests", Set.of("requests"));
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final long etagTtlNanos;
+    private final Cache<Key, Entry> cache;
+    //a response read before an invalidation is not stored after it
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public GatewayResponseCache(@Value("${shareit-server.cache.enabled}") boolean enabled,
+                                @Value("${shareit-server.cache.max-bytes}") long maxBytes,
+                                @Value("${shareit-server.cache.ttl}") long ttl,
+                                @Value("${shareit-server.cache.etag-ttl}") long etagTtl,
+                                MeterRegistry meterRegistry) {
+        this(enabled, maxBytes, ttl, etagTtl, meterRegistry, Ticker.systemTicker());
+    }
+
+    //the ticker is the clock of expiry, replaced in tests
+    GatewayResponseCache(boolean enabled, long maxBytes, long ttl, long etagTtl, MeterRegistry meterRegistry,
+                         Ticker ticker) {
+        this.enabled = enabled;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttl);
+        this.etagTtlNanos = TimeUnit.MILLISECONDS.toNanos(etagTtl);
+        this.cache = Caffeine.newBuilder()
+                .ticker(ticker)
+                .maximumWeight(maxBytes)
+                .weigher((Key key, Entry entry) -> key.uri.length() + bodyLength(entry.response))
+                .expireAfter(new Expiry<Key, Entry>() {
+                    //an entry with an etag outlives its ttl to be revalidated, revalidation puts it again
+                    @Override
+                    public long expireAfterCreate(Key key, Entry entry, long currentTime) {
+                        return entry.etag == null ? ttlNanos : Math.max(ttlNanos, etagTtlNanos);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Key key, Entry entry, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, entry, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Key key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway-responses");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Nullable
+    public Entry get(Key key) {
+        return cache.getIfPresent(key);
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    public synchronized void put(Key key, ResponseEntity<Object> response, long readGeneration) {
+        if (response.getStatusCode().is2xxSuccessful() && generation.get() == readGeneration) {
+            cache.put(key, new Entry(response, response.getHeaders().getETag(), System.nanoTime() + ttlNanos));
+        }
+    }
+
+    //the server answered 304 to the etag of a stale entry, so its response is fresh again
+    public synchronized ResponseEntity<Object> revalidate(Key key, Entry entry, long readGeneration) {
+        if (generation.get() == readGeneration) {
+            cache.put(key, new Entry(entry.response, entry.etag, System.nanoTime() + ttlNanos));
+        }
+        return entry.response;
+    }
+
+    //regions are the last segment of the client base url: users, items, bookings, requests
+    public synchronized void invalidate(String mutatedRegion) {
+        Set<String> regions = AFFECTED_REGIONS.getOrDefault(mutatedRegion, AFFECTED_REGIONS.keySet());
+        generation.incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> regions.contains(key.region));
+        log.debug("Invalidated cached responses of {} after a change of {}", regions, mutatedRegion);
+    }
+
+    private static int bodyLength(ResponseEntity<Object> response) {
+        return response.getBody() instanceof byte[] ? ((byte[]) response.getBody()).length : 0;
+    }
+
+    @RequiredArgsConstructor
+    @Getter
+    public static final class Entry {
+        private final ResponseEntity<Object> response;
+        @Nullable
+        private final String etag;
+        private final long freshUntil;
+
+        public boolean isFresh() {
+            return System.nanoTime() - freshUntil < 0;
+        }
+    }
+
+    @RequiredArgsConstructor
+    @EqualsAndHashCode(exclude = "region")
+    public static final class Key {
+        private final String region;
+        private final String uri;
+        @Nullable
+        private final Long userId;
+    }
+}
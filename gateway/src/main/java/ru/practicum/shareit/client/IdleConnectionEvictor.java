@@ -0,0 +1,39 @@
+package ru.practicum.shareit.client;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.nio.conn.NHttpClientConnectionManager;
+
+/*
+ * Сервер закрывает keep-alive соединение по своему таймауту, и запрос, отправленный в уже закрытое
+ * соединение, падает. Поэтому простаивающие соединения пула закрываются раньше, по idle-timeout
+ */
+public class IdleConnectionEvictor implements AutoCloseable {
+    private final NHttpClientConnectionManager connectionManager;
+    private final long idleTimeout;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "server-connection-evictor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public IdleConnectionEvictor(NHttpClientConnectionManager connectionManager, long idleTimeout) {
+        this.connectionManager = connectionManager;
+        this.idleTimeout = idleTimeout;
+        //checking twice per timeout keeps an idle connection open for at most 1.5 timeouts
+        long period = Math.max(idleTimeout / 2, 1);
+        scheduler.scheduleWithFixedDelay(this::evict, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    void evict() {
+        connectionManager.closeExpiredConnections();
+        connectionManager.closeIdleConnections(idleTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,83 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.message.BasicHeader;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/*
+ * Один пул соединений к серверу на все клиенты gateway: соединения переиспользуются (keep-alive),
+ * простаивающие закрываются до того, как их закроет сервер, а заполнение пула видно в метриках
+ */
+@Configuration
+public class ServerClientConfig {
+
+    //the client runs the I/O reactor of the pool and shuts the pool down on close
+    @Bean(destroyMethod = "")
+    public PoolingNHttpClientConnectionManager serverConnectionManager(
+            @Value("${shareit-server.connect-timeout}") int connectTimeout,
+            @Value("${shareit-server.max-connections}") int maxConnections,
+            @Value("${shareit-server.max-connections-per-route}") int maxConnectionsPerRoute)
+            throws IOReactorException {
+        IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+                .setConnectTimeout(connectTimeout)
+                .build();
+        PoolingNHttpClientConnectionManager connectionManager =
+                new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(ioReactorConfig));
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        return connectionManager;
+    }
+
+    //one non-blocking client for all gateway clients: a few I/O threads serve every request in flight
+    @Bean(destroyMethod = "close")
+    public CloseableHttpAsyncClient serverHttpClient(
+            PoolingNHttpClientConnectionManager serverConnectionManager,
+            @Value("${shareit-server.connect-timeout}") int connectTimeout,
+            @Value("${shareit-server.response-timeout}") int responseTimeout,
+            @Value("${shareit-server.connection-request-timeout}") int connectionRequestTimeout,
+            @Value("${shareit-server.compression}") boolean compression) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeout)
+                .setSocketTimeout(responseTimeout)
+                .setConnectionRequestTimeout(connectionRequestTimeout)
+                .build();
+        //large responses of the server come gzipped, BaseClient unpacks them
+        List<Header> defaultHeaders = compression
+                ? List.of(new BasicHeader(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                : List.of();
+        CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+                .setDefaultRequestConfig(requestConfig)
+                .setDefaultHeaders(defaultHeaders)
+                .setConnectionManager(serverConnectionManager)
+                .build();
+        client.start();
+        return client;
+    }
+
+    @Bean(destroyMethod = "close")
+    public IdleConnectionEvictor serverIdleConnectionEvictor(
+            PoolingNHttpClientConnectionManager serverConnectionManager,
+            @Value("${shareit-server.idle-timeout}") long idleTimeout) {
+        return new IdleConnectionEvictor(serverConnectionManager, idleTimeout);
+    }
+
+    //httpcomponents.httpclient.pool.total.{max,connections,pending} and route.max.default with httpclient=shareit-server
+    @Bean
+    public MeterBinder serverConnectionPoolMetrics(PoolingNHttpClientConnectionManager serverConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(serverConnectionManager, "shareit-server");
+    }
+}
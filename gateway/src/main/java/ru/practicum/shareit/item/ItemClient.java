@@ -1,60 +1,69 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.GatewayResponseCache;
+import ru.practicum.shareit.custom.BookingDateException;
 import ru.practicum.shareit.custom.UserIdValidationException;
 
+import java.time.LocalDateTime;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl,
+                      CloseableHttpAsyncClient httpClient,
+                      ObjectMapper objectMapper,
+                      GatewayResponseCache responseCache) {
+        super(httpClient, serverUrl + API_PREFIX, objectMapper, responseCache);
     }
 
-    public ResponseEntity<Object> getAll(Long userId, Integer from, Integer size) {
+    public CompletableFuture<ResponseEntity<Object>> getAll(Long userId, Integer from, Integer size, String cursor) {
         Map<String, Object> params = Map.of("from", from, "size", size);
-        return get("/?from={from}&size={size}", userId, params);
+        return getPage("/?from={from}&size={size}", userId, params, cursor);
     }
 
-    public ResponseEntity<Object> getById(Long userId, Long itemId) {
-        return get("/" + itemId, userId);
+    public CompletableFuture<ResponseEntity<Object>> getById(Long userId, Long itemId, String ifNoneMatch) {
+        return getCached("/" + itemId, userId, ifNoneMatch);
     }
 
-    public ResponseEntity<Object> addItem(Long userId, ItemDto itemDto) {
+    //cached with the items: a change of bookings through the gateway invalidates it
+    public CompletableFuture<ResponseEntity<Object>> getFreeWindows(Long userId, Long itemId, LocalDateTime from,
+                                                                    LocalDateTime to) {
+        validatePeriod(from, to);
+        Map<String, Object> params = Map.of("from", from, "to", to);
+        return getCached("/" + itemId + "/availability?from={from}&to={to}", userId, params, null);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> addItem(Long userId, ItemDto itemDto) {
         validateUserId(userId);
         return post("", userId, itemDto);
     }
 
-    public ResponseEntity<Object> updateItem(Long userId, Long itemId, ItemDto itemDto) {
+    public CompletableFuture<ResponseEntity<Object>> updateItem(Long userId, Long itemId, ItemDto itemDto) {
         validateUserId(userId);
         return patch("/" + itemId, userId, itemDto);
     }
 
-    public void deleteItem(Long itemId) {
-        delete("/" + itemId);
+    public CompletableFuture<Void> deleteItem(Long itemId) {
+        return delete("/" + itemId).thenApply(response -> null);
     }
 
-    public ResponseEntity<Object> searchItem(Long userId, String text, Integer from, Integer size) {
+    public CompletableFuture<ResponseEntity<Object>> searchItem(Long userId, String text, Integer from, Integer size) {
         Map<String, Object> params = Map.of("text", text, "from", from, "size", size);
         return get("/search?text={text}&from={from}&size={size}", userId, params);
     }
 
-    public ResponseEntity<Object> addComment(Long userId, CommentDto commentDto, Long itemId) {
+    public CompletableFuture<ResponseEntity<Object>> addComment(Long userId, CommentDto commentDto, Long itemId) {
         return post("/" + itemId + "/comment", userId, commentDto);
     }
 
@@ -64,4 +73,10 @@ public class ItemClient extends BaseClient {
         if (userId < 0) throw new UserIdValidationException("id пользователя не может быть отрицательным: " + userId);
         if (userId == 0) throw new UserIdValidationException("id пользователя не может быть нулевой: " + userId);
     }
+
+    private void validatePeriod(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new BookingDateException("Дата конца периода не может быть раньше или равна дате начала");
+        }
+    }
 }
\ No newline at end of file
@@ -2,6 +2,8 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -19,6 +21,8 @@ import ru.practicum.shareit.Update;
 
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping(path = "/items")
@@ -29,58 +33,77 @@ public class ItemController {
     private final ItemClient itemClient;
 
     @GetMapping
-    public ResponseEntity<Object> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                         @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
-                                         Integer from,
-                                         @Positive @RequestParam(name = "size", defaultValue = "10")
-                                         Integer size) {
+    public CompletableFuture<ResponseEntity<Object>> getAll(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
+            Integer from,
+            @Positive @RequestParam(name = "size", defaultValue = "10")
+            Integer size,
+            @RequestParam(name = "cursor", required = false)
+            String cursor) {
         log.info("Get all items for user id {}", userId);
-        return itemClient.getAll(userId, from, size);
+        return itemClient.getAll(userId, from, size, cursor);
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getById(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                          @PathVariable Long itemId) {
+    public CompletableFuture<ResponseEntity<Object>> getById(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @PathVariable Long itemId,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("Get item by id: {}, user id: {}", itemId, userId);
-        return itemClient.getById(userId, itemId);
+        return itemClient.getById(userId, itemId, ifNoneMatch);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public CompletableFuture<ResponseEntity<Object>> getFreeWindows(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @PathVariable Long itemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Get free windows of item id: {} from {} to {}, user id: {}", itemId, from, to, userId);
+        return itemClient.getFreeWindows(userId, itemId, from, to);
     }
 
     @PostMapping
-    public ResponseEntity<Object> addItem(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
-                                          @Validated({Create.class}) @RequestBody ItemDto itemDto) {
+    public CompletableFuture<ResponseEntity<Object>> addItem(
+            @RequestHeader(name = "X-Sharer-User-Id") Long userId,
+            @Validated({Create.class}) @RequestBody ItemDto itemDto) {
         log.info("Add item: {}, user id: {}", itemDto, userId);
         return itemClient.addItem(userId, itemDto);
     }
 
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> updateItem(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
-                                             @PathVariable Long itemId,
-                                             @Validated({Update.class}) @RequestBody ItemDto itemDto) {
+    public CompletableFuture<ResponseEntity<Object>> updateItem(
+            @RequestHeader(name = "X-Sharer-User-Id") Long userId,
+            @PathVariable Long itemId,
+            @Validated({Update.class}) @RequestBody ItemDto itemDto) {
         log.info("Update item: {}, user id: {}, item id: {}", itemDto, userId, itemId);
         return itemClient.updateItem(userId, itemId, itemDto);
     }
 
     @DeleteMapping("/{itemId}")
-    public void deleteItem(@PathVariable Long itemId) {
+    public CompletableFuture<Void> deleteItem(@PathVariable Long itemId) {
         log.info("Delete item by id: {}", itemId);
-        itemClient.deleteItem(itemId);
+        return itemClient.deleteItem(itemId);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> searchItem(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
-                                             @RequestParam String text,
-                                             @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
-                                             Integer from,
-                                             @Positive @RequestParam(name = "size", defaultValue = "10")
-                                             Integer size) {
+    public CompletableFuture<ResponseEntity<Object>> searchItem(
+            @RequestHeader(name = "X-Sharer-User-Id") Long userId,
+            @RequestParam String text,
+            @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
+            Integer from,
+            @Positive @RequestParam(name = "size", defaultValue = "10")
+            Integer size) {
         log.info("Searching items by text: {}, user id: {}", text, userId);
         return itemClient.searchItem(userId, text, from, size);
     }
 
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> addComment(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
-                                             @Validated({Create.class}) @RequestBody CommentDto commentDto,
-                                             @PathVariable Long itemId) {
+    public CompletableFuture<ResponseEntity<Object>> addComment(
+            @RequestHeader(name = "X-Sharer-User-Id") Long userId,
+            @Validated({Create.class}) @RequestBody CommentDto commentDto,
+            @PathVariable Long itemId) {
         log.info("Add comment: {}, user id: {}, item id: {}", commentDto, userId, itemId);
         return itemClient.addComment(userId, commentDto, itemId);
     }
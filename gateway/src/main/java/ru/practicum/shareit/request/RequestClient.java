@@ -1,47 +1,49 @@
 package ru.practicum.shareit.request;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.GatewayResponseCache;
 import ru.practicum.shareit.custom.UserIdValidationException;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class RequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public RequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public RequestClient(@Value("${shareit-server.url}") String serverUrl,
+                         CloseableHttpAsyncClient httpClient,
+                         ObjectMapper objectMapper,
+                         GatewayResponseCache responseCache) {
+        super(httpClient, serverUrl + API_PREFIX, objectMapper, responseCache);
     }
 
-    public ResponseEntity<Object> getAllByUserId(Long userId, Integer from, Integer size) {
+    public CompletableFuture<ResponseEntity<Object>> getAllByUserId(
+            Long userId, Integer from, Integer size, String cursor) {
         Map<String, Object> params = Map.of("from", from, "size", size);
-        return get("?from={from}&size={size}", userId, params);
+        return getPage("?from={from}&size={size}", userId, params, cursor);
 
     }
 
-    public ResponseEntity<Object> getByRequestId(Long userId, Long requestId) {
-        return get("/" + requestId, userId);
+    public CompletableFuture<ResponseEntity<Object>> getByRequestId(Long userId, Long requestId,
+                                                                    String ifNoneMatch) {
+        return getCached("/" + requestId, userId, ifNoneMatch);
     }
 
-    public ResponseEntity<Object> getAllRequestsNotOwner(Long userId, Integer from, Integer size) {
+    public CompletableFuture<ResponseEntity<Object>> getAllRequestsNotOwner(
+            Long userId, Integer from, Integer size, String cursor) {
         Map<String, Object> params = Map.of("from", from, "size", size);
-        return get("/all?from={from}&size={size}", userId, params);
+        return getCachedPage("/all?from={from}&size={size}", userId, params, cursor);
     }
 
-    public ResponseEntity<Object> addItemRequest(Long userId, ItemRequestDto itemRequestDto) {
+    public CompletableFuture<ResponseEntity<Object>> addItemRequest(Long userId, ItemRequestDto itemRequestDto) {
         validateUserId(userId);
         return post("", userId, itemRequestDto);
     }
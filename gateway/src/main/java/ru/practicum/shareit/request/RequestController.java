@@ -2,6 +2,7 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -16,6 +17,7 @@ import ru.practicum.shareit.Create;
 
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping(path = "/requests")
@@ -26,37 +28,46 @@ public class RequestController {
     private final RequestClient requestClient;
 
     @GetMapping
-    public ResponseEntity<Object> getAllByUserId(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                 @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
-                                                 Integer from,
-                                                 @Positive @RequestParam(name = "size", defaultValue = "10")
-                                                 Integer size) {
+    public CompletableFuture<ResponseEntity<Object>> getAllByUserId(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
+            Integer from,
+            @Positive @RequestParam(name = "size", defaultValue = "10")
+            Integer size,
+            @RequestParam(name = "cursor", required = false)
+            String cursor) {
         log.info("Get all requests for user id: {}", userId);
-        return requestClient.getAllByUserId(userId, from, size);
+        return requestClient.getAllByUserId(userId, from, size, cursor);
 
     }
 
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> getByRequestId(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                 @PathVariable Long requestId) {
+    public CompletableFuture<ResponseEntity<Object>> getByRequestId(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @PathVariable Long requestId,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("Get request by id: {}, user id: {}", requestId, userId);
-        return requestClient.getByRequestId(userId, requestId);
+        return requestClient.getByRequestId(userId, requestId, ifNoneMatch);
 
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getAllRequestsNotOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                         @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
-                                                         Integer from,
-                                                         @Positive @RequestParam(name = "size", defaultValue = "10")
-                                                         Integer size) {
+    public CompletableFuture<ResponseEntity<Object>> getAllRequestsNotOwner(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
+            Integer from,
+            @Positive @RequestParam(name = "size", defaultValue = "10")
+            Integer size,
+            @RequestParam(name = "cursor", required = false)
+            String cursor) {
         log.info("Get all requests by user id: {}", userId);
-        return requestClient.getAllRequestsNotOwner(userId, from, size);
+        return requestClient.getAllRequestsNotOwner(userId, from, size, cursor);
     }
 
     @PostMapping
-    public ResponseEntity<Object> addItemRequest(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
-                                                 @Validated({Create.class}) @RequestBody ItemRequestDto itemRequestDto) {
+    public CompletableFuture<ResponseEntity<Object>> addItemRequest(
+            @RequestHeader(name = "X-Sharer-User-Id") Long userId,
+            @Validated({Create.class}) @RequestBody ItemRequestDto itemRequestDto) {
         log.info("Add request: {}, user id: {}", itemRequestDto, userId);
         return requestClient.addItemRequest(userId, itemRequestDto);
     }
@@ -2,6 +2,7 @@ package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -10,11 +11,14 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.shareit.Create;
 import ru.practicum.shareit.Update;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping(path = "/users")
 @RequiredArgsConstructor
@@ -25,33 +29,37 @@ public class UserController {
     private final UserClient userClient;
 
     @GetMapping
-    public ResponseEntity<Object> getAll() {
+    public CompletableFuture<ResponseEntity<Object>> getAll() {
         log.info("Get all users");
         return userClient.getAll();
     }
 
     @GetMapping("/{userId}")
-    public ResponseEntity<Object> getById(@PathVariable Long userId) {
+    public CompletableFuture<ResponseEntity<Object>> getById(
+            @PathVariable Long userId,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("Get user by id: {}", userId);
-        return userClient.getById(userId);
+        return userClient.getById(userId, ifNoneMatch);
     }
 
     @PostMapping
-    public ResponseEntity<Object> addUser(@Validated({Create.class}) @RequestBody UserDto userDto) {
+    public CompletableFuture<ResponseEntity<Object>> addUser(
+            @Validated({Create.class}) @RequestBody UserDto userDto) {
         log.info("Add user: {}", userDto);
         return userClient.addUser(userDto);
     }
 
     @PatchMapping("/{userId}")
-    public ResponseEntity<Object> updateUser(@PathVariable Long userId,
-                                             @Validated({Update.class}) @RequestBody UserDto userDto) {
+    public CompletableFuture<ResponseEntity<Object>> updateUser(
+            @PathVariable Long userId,
+            @Validated({Update.class}) @RequestBody UserDto userDto) {
         log.info("Update user id = {}: {}", userId, userDto);
         return userClient.updateUser(userId, userDto);
     }
 
     @DeleteMapping("/{userId}")
-    public void deleteUser(@PathVariable Long userId) {
+    public CompletableFuture<Void> deleteUser(@PathVariable Long userId) {
         log.info("Delete user with id {}", userId);
-        userClient.deleteUser(userId);
+        return userClient.deleteUser(userId);
     }
 }
\ No newline at end of file
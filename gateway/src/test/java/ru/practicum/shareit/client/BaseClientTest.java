@@ -0,0 +1,340 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//the pooled async client of ServerClientConfig against a JDK http server standing in for the shareit server
+public class BaseClientTest {
+    private static final byte[] BODY = "{\"id\":1,\"name\":\"drill\"}".getBytes(StandardCharsets.UTF_8);
+    private static final String ETAG = "\"v1\"";
+    private static final long TIMEOUT = 5;
+
+    private final Queue<Recorded> requests = new ConcurrentLinkedQueue<>();
+    private final ExecutorService serverThreads = Executors.newCachedThreadPool();
+    private HttpServer server;
+    private volatile Handler handler;
+    private PoolingNHttpClientConnectionManager connectionManager;
+    private CloseableHttpAsyncClient httpClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(serverThreads);
+        server.createContext("/", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            requests.add(new Recorded(exchange));
+            try {
+                handler.handle(exchange);
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+        handler = exchange -> respond(exchange, 200, ETAG, BODY, false);
+
+        ServerClientConfig config = new ServerClientConfig();
+        connectionManager = config.serverConnectionManager(1000, 2, 2);
+        httpClient = config.serverHttpClient(connectionManager, 1000, 5000, 1000, true);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        httpClient.close();
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    void testCachedGetIsServedWithoutServer() throws Exception {
+        TestClient client = client(10_000);
+
+        ResponseEntity<Object> first = await(client.getCached("/1", 1L, null));
+        ResponseEntity<Object> second = await(client.getCached("/1", 1L, null));
+
+        assertEquals(HttpStatus.OK, second.getStatusCode());
+        assertArrayEquals(BODY, (byte[]) first.getBody());
+        assertArrayEquals(BODY, (byte[]) second.getBody());
+        assertEquals(1, requests.size());
+        assertEquals("1", requests.peek().userId);
+    }
+
+    @Test
+    void testCachedGetOfAnotherUserGoesToServer() throws Exception {
+        TestClient client = client(10_000);
+
+        await(client.getCached("/1", 1L, null));
+        await(client.getCached("/1", 2L, null));
+
+        assertEquals(2, requests.size());
+    }
+
+    @Test
+    void testMatchingIfNoneMatchIsAnsweredFromCache() throws Exception {
+        TestClient client = client(10_000);
+        await(client.getCached("/1", 1L, null));
+
+        ResponseEntity<Object> response = await(client.getCached("/1", 1L, ETAG));
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals(ETAG, response.getHeaders().getETag());
+        assertNull(response.getBody());
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    void testStaleEntryIsRevalidated() throws Exception {
+        TestClient client = client(0);
+        await(client.getCached("/1", 1L, null));
+        handler = exchange -> respond(exchange, 304, ETAG, null, false);
+
+        ResponseEntity<Object> response = await(client.getCached("/1", 1L, null));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertArrayEquals(BODY, (byte[]) response.getBody());
+        assertEquals(2, requests.size());
+        assertEquals(ETAG, new ArrayList<>(requests).get(1).ifNoneMatch);
+    }
+
+    @Test
+    void testStaleEntryIsReplacedWhenChanged() throws Exception {
+        TestClient client = client(0);
+        await(client.getCached("/1", 1L, null));
+        byte[] changed = "{\"id\":1,\"name\":\"saw\"}".getBytes(StandardCharsets.UTF_8);
+        handler = exchange -> respond(exchange, 200, "\"v2\"", changed, false);
+
+        ResponseEntity<Object> response = await(client.getCached("/1", 1L, ETAG));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertArrayEquals(changed, (byte[]) response.getBody());
+        assertEquals("\"v2\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void testChangeInvalidatesCachedGet() throws Exception {
+        TestClient client = client(10_000);
+        await(client.getCached("/1", 1L, null));
+
+        await(client.patch("/1", 1L, Map.of("name", "saw")));
+        await(client.getCached("/1", 1L, null));
+
+        assertEquals(3, requests.size());
+        assertEquals("PATCH", new ArrayList<>(requests).get(1).method);
+    }
+
+    @Test
+    void testFailedChangeKeepsCachedGet() throws Exception {
+        TestClient client = client(10_000);
+        await(client.getCached("/1", 1L, null));
+        handler = exchange -> respond(exchange, 400, null, new byte[0], false);
+
+        assertEquals(HttpStatus.BAD_REQUEST, await(client.patch("/1", 1L, Map.of("name", "saw"))).getStatusCode());
+        await(client.getCached("/1", 1L, null));
+
+        assertEquals(2, requests.size());
+    }
+
+    @Test
+    void testResponseReadDuringChangeIsNotCached() throws Exception {
+        TestClient client = client(10_000);
+        CountDownLatch read = new CountDownLatch(1);
+        CountDownLatch changed = new CountDownLatch(1);
+        handler = exchange -> {
+            if ("GET".equals(exchange.getRequestMethod())) {
+                read.countDown();
+                await(changed);
+            }
+            respond(exchange, 200, ETAG, BODY, false);
+        };
+
+        CompletableFuture<ResponseEntity<Object>> slowGet = client.getCached("/1", 1L, null);
+        await(read);
+        await(client.patch("/1", 1L, Map.of("name", "saw")));
+        changed.countDown();
+        await(slowGet);
+        await(client.getCached("/1", 1L, null));
+
+        assertEquals(3, requests.size());
+    }
+
+    @Test
+    void testGzippedResponseIsUnpacked() throws Exception {
+        TestClient client = client(10_000);
+        handler = exchange -> respond(exchange, 200, ETAG, BODY, true);
+
+        ResponseEntity<Object> response = await(client.get("/1", 1L));
+
+        assertEquals("gzip", requests.peek().acceptEncoding);
+        assertArrayEquals(BODY, (byte[]) response.getBody());
+        assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_LENGTH));
+    }
+
+    @Test
+    void testConnectionIsReused() throws Exception {
+        TestClient client = client(10_000);
+
+        await(client.get("/1", 1L));
+        await(client.get("/2", 1L));
+
+        List<Recorded> recorded = new ArrayList<>(requests);
+        assertEquals(recorded.get(0).clientPort, recorded.get(1).clientPort);
+    }
+
+    @Test
+    void testRequestsWaitForPooledConnection() throws Exception {
+        TestClient client = client(10_000);
+        CountDownLatch release = new CountDownLatch(1);
+        handler = exchange -> {
+            await(release);
+            respond(exchange, 200, ETAG, BODY, false);
+        };
+
+        List<CompletableFuture<ResponseEntity<Object>>> responses = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            responses.add(client.get("/" + i, 1L));
+        }
+        //two connections of the pool are busy, the other four requests wait for them instead of opening new ones
+        assertTrue(waitFor(() -> requests.size() == 2));
+        Thread.sleep(200);
+        assertEquals(2, requests.size());
+        assertEquals(2, connectionManager.getTotalStats().getLeased());
+        release.countDown();
+
+        for (CompletableFuture<ResponseEntity<Object>> response : responses) {
+            assertEquals(HttpStatus.OK, await(response).getStatusCode());
+        }
+        assertEquals(6, requests.size());
+        assertTrue(waitFor(() -> connectionManager.getTotalStats().getLeased() == 0));
+    }
+
+    @Test
+    void testUnreachableServerFailsFuture() throws Exception {
+        TestClient client = client(10_000);
+        server.stop(0);
+
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> client.get("/1", 1L).get(TIMEOUT, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof IOException);
+    }
+
+    private TestClient client(long ttl) {
+        GatewayResponseCache cache = new GatewayResponseCache(true, 1024 * 1024, ttl, 600_000,
+                new SimpleMeterRegistry());
+        return new TestClient(httpClient, "http://localhost:" + server.getAddress().getPort() + "/items", cache);
+    }
+
+    private static ResponseEntity<Object> await(CompletableFuture<ResponseEntity<Object>> response)
+            throws Exception {
+        return response.get(TIMEOUT, TimeUnit.SECONDS);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(TIMEOUT, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean waitFor(Condition condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT);
+        while (!condition.met()) {
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String etag, byte[] body, boolean gzip)
+            throws IOException {
+        if (etag != null) {
+            exchange.getResponseHeaders().set(HttpHeaders.ETAG, etag);
+        }
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] content = body;
+        if (gzip) {
+            ByteArrayOutputStream packed = new ByteArrayOutputStream();
+            try (GZIPOutputStream out = new GZIPOutputStream(packed)) {
+                out.write(body);
+            }
+            content = packed.toByteArray();
+            exchange.getResponseHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE, "application/json");
+        exchange.sendResponseHeaders(status, content.length == 0 ? -1 : content.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(content);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Condition {
+        boolean met();
+    }
+
+    private static final class Recorded {
+        private final String method;
+        private final String userId;
+        private final String ifNoneMatch;
+        private final String acceptEncoding;
+        private final int clientPort;
+
+        private Recorded(HttpExchange exchange) {
+            method = exchange.getRequestMethod();
+            userId = exchange.getRequestHeaders().getFirst("X-Sharer-User-Id");
+            ifNoneMatch = exchange.getRequestHeaders().getFirst(HttpHeaders.IF_NONE_MATCH);
+            acceptEncoding = exchange.getRequestHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING);
+            clientPort = exchange.getRemoteAddress().getPort();
+        }
+    }
+
+    private static final class TestClient extends BaseClient {
+        private TestClient(CloseableHttpAsyncClient httpClient, String baseUrl, GatewayResponseCache cache) {
+            super(httpClient, baseUrl, new ObjectMapper(), cache);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GatewayResponseCacheTest {
+    private static final GatewayResponseCache.Key ITEM = new GatewayResponseCache.Key("items", "/items/1", 1L);
+    private static final GatewayResponseCache.Key REQUEST = new GatewayResponseCache.Key("requests", "/requests/1", 1L);
+    private static final GatewayResponseCache.Key USER = new GatewayResponseCache.Key("users", "/users/1", null);
+
+    private final GatewayResponseCache cache = new GatewayResponseCache(true, 1024 * 1024, 10_000, 600_000,
+            new SimpleMeterRegistry());
+
+    @Test
+    void testPutAndGet() {
+        assertNull(cache.get(ITEM));
+
+        ResponseEntity<Object> response = response("\"1\"");
+        cache.put(ITEM, response, cache.generation());
+
+        GatewayResponseCache.Entry entry = cache.get(ITEM);
+        assertNotNull(entry);
+        assertSame(response, entry.getResponse());
+        assertTrue(entry.isFresh());
+        assertNull(cache.get(new GatewayResponseCache.Key("items", "/items/1", 2L)));
+    }
+
+    @Test
+    void testErrorIsNotCached() {
+        cache.put(ITEM, ResponseEntity.status(HttpStatus.NOT_FOUND).body(new byte[0]), cache.generation());
+
+        assertNull(cache.get(ITEM));
+    }
+
+    @Test
+    void testResponseReadBeforeInvalidationIsNotCached() {
+        long generation = cache.generation();
+        //a change commits while the read is in flight
+        cache.invalidate("items");
+
+        cache.put(ITEM, response("\"1\""), generation);
+        assertNull(cache.get(ITEM));
+    }
+
+    @Test
+    void testRevalidateRefreshesEntry() {
+        GatewayResponseCache expiring = new GatewayResponseCache(true, 1024 * 1024, 0, 600_000,
+                new SimpleMeterRegistry());
+        expiring.put(ITEM, response("\"1\""), expiring.generation());
+        GatewayResponseCache.Entry stale = expiring.get(ITEM);
+        assertNotNull(stale);
+        assertFalse(stale.isFresh());
+
+        assertSame(stale.getResponse(), expiring.revalidate(ITEM, stale, expiring.generation()));
+        assertNotNull(expiring.get(ITEM));
+        assertNotSame(stale, expiring.get(ITEM));
+    }
+
+    @Test
+    void testRevalidateAfterInvalidationIsNotCached() {
+        cache.put(ITEM, response("\"1\""), cache.generation());
+        GatewayResponseCache.Entry entry = cache.get(ITEM);
+        long generation = cache.generation();
+        cache.invalidate("items");
+
+        assertSame(entry.getResponse(), cache.revalidate(ITEM, entry, generation));
+        assertNull(cache.get(ITEM));
+    }
+
+    @Test
+    void testEntryWithoutEtagExpires() {
+        GatewayResponseCache expiring = new GatewayResponseCache(true, 1024 * 1024, 0, 600_000,
+                new SimpleMeterRegistry());
+        expiring.put(ITEM, ResponseEntity.ok(body()), expiring.generation());
+
+        assertNull(expiring.get(ITEM));
+    }
+
+    @Test
+    void testEntryWithEtagIsRevalidatedAfterTtlAndEvictedAfterEtagTtl() {
+        AtomicLong now = new AtomicLong();
+        GatewayResponseCache expiring = new GatewayResponseCache(true, 1024 * 1024, 10_000, 60_000,
+                new SimpleMeterRegistry(), now::get);
+        expiring.put(ITEM, response("\"1\""), expiring.generation());
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        GatewayResponseCache.Entry stale = expiring.get(ITEM);
+        assertNotNull(stale);
+        //revalidation starts the etag lifetime again
+        expiring.revalidate(ITEM, stale, expiring.generation());
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(59));
+        assertNotNull(expiring.get(ITEM));
+        now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertNull(expiring.get(ITEM));
+    }
+
+    @Test
+    void testInvalidateDropsAffectedRegions() {
+        cache.put(ITEM, response("\"1\""), cache.generation());
+        cache.put(REQUEST, response("\"2\""), cache.generation());
+        cache.put(USER, response("\"3\""), cache.generation());
+
+        cache.invalidate("bookings");
+        assertNull(cache.get(ITEM));
+        assertNotNull(cache.get(REQUEST));
+        assertNotNull(cache.get(USER));
+
+        cache.invalidate("users");
+        assertNull(cache.get(REQUEST));
+        assertNull(cache.get(USER));
+    }
+
+    private static ResponseEntity<Object> response(String etag) {
+        return ResponseEntity.ok().eTag(etag).body(body());
+    }
+
+    private static byte[] body() {
+        return "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -13,7 +13,9 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.shareit.custom.CustomPageRequest;
+import ru.practicum.shareit.custom.PageCursor;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 import java.util.List;
@@ -37,7 +39,16 @@ public class BookingController {
                                                        @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
                                                        Integer from,
                                                        @Positive @RequestParam(name = "size", defaultValue = "10")
-                                                       Integer size) {
+                                                       Integer size,
+                                                       @RequestParam(name = "cursor", required = false)
+                                                       String cursor,
+                                                       HttpServletResponse response) {
+        if (cursor != null) {
+            List<BookingInfoDto> result = bookingService.getAllByUserIdAfter(userId, stateParam,
+                    PageCursor.decode(cursor), size);
+            PageCursor.writeNext(response, result, size, b -> PageCursor.of(b.getStart(), b.getId()));
+            return result;
+        }
         PageRequest pageRequest = CustomPageRequest.of(from, size);
         return bookingService.getAllByUserId(userId, stateParam, pageRequest);
     }
@@ -49,7 +60,16 @@ public class BookingController {
                                                         @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
                                                         Integer from,
                                                         @Positive @RequestParam(name = "size", defaultValue = "10")
-                                                        Integer size) {
+                                                        Integer size,
+                                                        @RequestParam(name = "cursor", required = false)
+                                                        String cursor,
+                                                        HttpServletResponse response) {
+        if (cursor != null) {
+            List<BookingInfoDto> result = bookingService.getAllByOwnerIdAfter(ownerId, stateParam,
+                    PageCursor.decode(cursor), size);
+            PageCursor.writeNext(response, result, size, b -> PageCursor.of(b.getStart(), b.getId()));
+            return result;
+        }
         PageRequest pageRequest = CustomPageRequest.of(from, size);
         return bookingService.getAllByOwnerId(ownerId, stateParam, pageRequest);
     }
@@ -67,6 +87,12 @@ public class BookingController {
 
     }
 
+    @PostMapping("/batch")
+    public List<BookingInfoDto> addBookings(@RequestHeader(name = "X-Sharer-User-Id") Long bookerId,
+                                            @RequestBody List<BookingDto> bookingDtos) {
+        return bookingService.addBookings(bookerId, bookingDtos);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingInfoDto updateBooking(@RequestHeader(name = "X-Sharer-User-Id") Long ownerId,
                                         @RequestParam Boolean approved,
@@ -7,8 +7,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
-import ru.practicum.shareit.item.Item;
-import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserDto;
 
 import java.time.LocalDateTime;
 
@@ -23,7 +22,25 @@ public class BookingInfoDto {
     private Long id;
     private LocalDateTime start;
     private LocalDateTime end;
-    private Item item;
-    private User booker;
+    private BookingItemDto item;
+    private UserDto booker;
     private State status;
+
+    //constructor expression of the list queries in BookingRepository, the columns of a joined row
+    public BookingInfoDto(Long id, LocalDateTime start, LocalDateTime end, State status, Long itemId,
+                          String itemName, Long bookerId, String bookerName, String bookerEmail) {
+        this(id, start, end, new BookingItemDto(itemId, itemName), new UserDto(bookerId, bookerName, bookerEmail),
+                status);
+    }
+
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Getter
+    @Setter
+    @ToString
+    @EqualsAndHashCode
+    public static class BookingItemDto {
+        private Long id;
+        private String name;
+    }
 }
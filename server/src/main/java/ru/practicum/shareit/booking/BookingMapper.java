@@ -1,34 +1,17 @@
 package ru.practicum.shareit.booking;
 
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
+import lombok.NoArgsConstructor;
 import org.springframework.stereotype.Component;
-import ru.practicum.shareit.custom.ItemNotFoundException;
-import ru.practicum.shareit.custom.UserNotFoundException;
 import ru.practicum.shareit.item.Item;
-import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.user.User;
-import ru.practicum.shareit.user.UserRepository;
-
-import java.util.Optional;
+import ru.practicum.shareit.user.UserMapper;
 
 @Component
-@Slf4j
+@NoArgsConstructor
 public class BookingMapper {
-    private final ItemRepository itemRepository;
-    private final UserRepository userRepository;
-
-    @Autowired
-    public BookingMapper(ItemRepository itemRepository,
-                         UserRepository userRepository) {
-        this.itemRepository = itemRepository;
-        this.userRepository = userRepository;
-    }
-
-    public Booking toBooking(BookingDto bookingDto, Long bookerId) {
-        Item item = getItem(bookingDto.getItemId());
-        User booker = getBooker(bookerId);
 
+    //item and booker are the entities the service has already loaded and validated
+    public static Booking toBooking(BookingDto bookingDto, Item item, User booker) {
         return Booking.builder()
                 .id(bookingDto.getId())
                 .start(bookingDto.getStart())
@@ -56,29 +39,9 @@ public class BookingMapper {
                 .id(booking.getId())
                 .start(booking.getStart())
                 .end(booking.getEnd())
-                .item(booking.getItem())
-                .booker(booking.getBooker())
+                .item(new BookingInfoDto.BookingItemDto(booking.getItem().getId(), booking.getItem().getName()))
+                .booker(UserMapper.toUserDto(booking.getBooker()))
                 .status(booking.getStatus())
                 .build();
     }
-
-    private User getBooker(Long bookerId) {
-        Optional<User> result = userRepository.findById(bookerId);
-        if (result.isEmpty()) {
-            log.warn("Пользователь с id {} не найден", bookerId);
-            throw new UserNotFoundException("Пользователь не найден");
-        } else {
-            return result.get();
-        }
-    }
-
-    private Item getItem(Long itemId) {
-        Optional<Item> result = itemRepository.findById(itemId);
-        if (result.isEmpty()) {
-            log.warn("Вещь с id {} не найдена", itemId);
-            throw new ItemNotFoundException("Вещь не найдена");
-        } else {
-            return result.get();
-        }
-    }
-}
\ No newline at end of file
+}
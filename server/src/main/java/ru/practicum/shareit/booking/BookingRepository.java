@@ -2,48 +2,150 @@ package ru.practicum.shareit.booking;
 
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
-    //get all
-    Collection<Booking> findByItemId(Long itemId);
+    //last and next booking of every item: one row per item, read from the top of idx_bookings_item_end_asc/_desc.
+    //Last is the earliest end and next the latest one of the item, so each is only kept if it is past or future
+    @Query(value = "select b.item_id as itemId, b.id as id, b.booker_id as bookerId from bookings b where b.id in " +
+            "(select (select l.id from bookings l where l.item_id = i.id and l.end_date < ?2 " +
+            "order by l.item_id, l.end_date, l.id limit 1) from items i where i.id in (?1))", nativeQuery = true)
+    List<BookingShortDto> findLastBookings(Collection<Long> itemIds, LocalDateTime dateTime);
 
-    Collection<Booking> findAllByBookerIdOrderByStartDesc(Long bookerId, PageRequest pageRequest);
+    @Query(value = "select b.item_id as itemId, b.id as id, b.booker_id as bookerId from bookings b where b.id in " +
+            "(select (select n.id from bookings n where n.item_id = i.id and n.end_date > ?2 " +
+            "order by n.item_id, n.end_date desc, n.id limit 1) from items i where i.id in (?1))",
+            nativeQuery = true)
+    List<BookingShortDto> findNextBookings(Collection<Long> itemIds, LocalDateTime dateTime);
+
+    //compare-and-set: 0 when the booking is no longer in the expected state, e.g. decided by a concurrent call
+    @Modifying
+    @Query("update Booking b set b.status = ?3 where b.id = ?1 and b.status = ?2")
+    int updateStatus(Long bookingId, State expected, State status);
+
+    //[start, end) periods: one booking may start at the moment another one ends
+    boolean existsByItemIdAndStatusInAndStartBeforeAndEndAfter(Long itemId, Collection<State> states,
+                                                               LocalDateTime end, LocalDateTime start);
+
+    @Query("select new ru.practicum.shareit.booking.AvailabilityWindowDto(b.start, b.end) from Booking b " +
+            "where b.item.id = ?1 and b.status in ?2 and b.start < ?4 and b.end > ?3 order by b.start")
+    List<AvailabilityWindowDto> findHeldPeriods(Long itemId, Collection<State> states, LocalDateTime from,
+                                                LocalDateTime to);
+
+    //bookings are only added or deleted, and last and next change only when one of them ends
+    @Query("select count(b.id) as total, coalesce(sum(b.id), 0) as idSum, " +
+            "coalesce(sum(case when b.end < ?2 then 1 else 0 end), 0) as ended " +
+            "from Booking b where b.item.id = ?1")
+    ItemBookingsState getItemBookingsState(Long itemId, LocalDateTime dateTime);
+
+    interface ItemBookingsState {
+        Long getTotal();
+
+        Long getIdSum();
+
+        Long getEnded();
+    }
+
+    //list rows are read straight into the response: the booking with the id and name of the item and the booker
+    String BOOKING_INFO = "select new ru.practicum.shareit.booking.BookingInfoDto(b.id, b.start, b.end, b.status, " +
+            "i.id, i.name, u.id, u.name, u.email) from Booking b join b.item i join b.booker u ";
 
     Collection<Booking> findAllByBookerIdAndItemId(Long bookerId, Long itemId);
 
-    Collection<Booking> findAllByBookerIdAndStatusOrderByStartDesc(Long bookerId, State state, PageRequest pageRequest);
+    //bookings that hold any of the items within [from, to): the overlap check of a booking batch in one query,
+    //read from the bookings table alone
+    @Query("select new ru.practicum.shareit.booking.HeldPeriodDto(b.item.id, b.start, b.end) from Booking b " +
+            "where b.item.id in ?1 and b.status in ?2 and b.start < ?4 and b.end > ?3")
+    List<HeldPeriodDto> findHeldByItemIdIn(Collection<Long> itemIds, Collection<State> states, LocalDateTime from,
+                                           LocalDateTime to);
+
+    //order of the paged queries below comes from the Sort of the page request
+    @Query(BOOKING_INFO + "where u.id = ?1")
+    List<BookingInfoDto> findAllByBookerId(Long bookerId, PageRequest pageRequest);
+
+    @Query(BOOKING_INFO + "where u.id = ?1 and b.status = ?2")
+    List<BookingInfoDto> findAllByBookerIdAndStatus(Long bookerId, State state, PageRequest pageRequest);
+
+    @Query(BOOKING_INFO + "where u.id = ?1 and b.start > ?2")
+    List<BookingInfoDto> findAllByBookerIdAndStartAfter(Long bookerId, LocalDateTime localDateTime,
+                                                        PageRequest pageRequest);
+
+    @Query(BOOKING_INFO + "where u.id = ?1 and b.end < ?2")
+    List<BookingInfoDto> findAllByBookerIdAndEndBefore(Long bookerId, LocalDateTime localDateTime,
+                                                       PageRequest pageRequest);
+
+    @Query(BOOKING_INFO + "where u.id = ?1 and ?2 between b.start and b.end")
+    List<BookingInfoDto> getAllByBookerId(Long bookerId, LocalDateTime dateTime, PageRequest pageRequest);
+
+    @Query(BOOKING_INFO + "where i.owner.id = ?1 and ?2 between b.start and b.end")
+    List<BookingInfoDto> getCurrentBookingsByOwnerId(Long ownerId, LocalDateTime dateTime, PageRequest pageRequest);
+
+    @Query(BOOKING_INFO + "where i.owner.id = ?1 and b.end < ?2")
+    List<BookingInfoDto> getPastBookingsByOwnerId(Long ownerId, LocalDateTime dateTime, PageRequest pageRequest);
+
+    @Query(BOOKING_INFO + "where i.owner.id = ?1 and b.start > ?2")
+    List<BookingInfoDto> getFutureBookingsByOwnerId(Long ownerId, LocalDateTime dateTime, PageRequest pageRequest);
+
+    @Query(BOOKING_INFO + "where i.owner.id = ?1 and b.status = ?2")
+    List<BookingInfoDto> findAllByOwnerIdAndStatus(Long ownerId, State status, PageRequest pageRequest);
+
+    @Query(BOOKING_INFO + "where i.owner.id = ?1")
+    List<BookingInfoDto> findAllByOwnerId(Long ownerId, PageRequest pageRequest);
+
+    //keyset: the page after (start, id) in "start desc, id desc" order
+    @Query(BOOKING_INFO + "where u.id = ?1 and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "order by b.start desc, b.id desc")
+    List<BookingInfoDto> findAllByBookerIdAfter(Long bookerId, LocalDateTime start, Long id,
+                                                PageRequest pageRequest);
+
+    @Query(BOOKING_INFO + "where u.id = ?1 and ?4 between b.start and b.end and " +
+            "(b.start < ?2 or (b.start = ?2 and b.id < ?3)) order by b.start desc, b.id desc")
+    List<BookingInfoDto> findCurrentByBookerIdAfter(Long bookerId, LocalDateTime start, Long id,
+                                                    LocalDateTime dateTime, PageRequest pageRequest);
 
-    Collection<Booking> findAllByBookerIdAndStartAfterOrderByStartDesc(Long bookerId, LocalDateTime localDateTime,
-                                                                       PageRequest pageRequest);
+    @Query(BOOKING_INFO + "where u.id = ?1 and b.end < ?4 and " +
+            "(b.start < ?2 or (b.start = ?2 and b.id < ?3)) order by b.start desc, b.id desc")
+    List<BookingInfoDto> findPastByBookerIdAfter(Long bookerId, LocalDateTime start, Long id,
+                                                 LocalDateTime dateTime, PageRequest pageRequest);
 
-    Collection<Booking> findAllByBookerIdAndEndBeforeOrderByStartDesc(Long bookerId, LocalDateTime localDateTime,
-                                                                      PageRequest pageRequest);
+    @Query(BOOKING_INFO + "where u.id = ?1 and b.start > ?4 and " +
+            "(b.start < ?2 or (b.start = ?2 and b.id < ?3)) order by b.start desc, b.id desc")
+    List<BookingInfoDto> findFutureByBookerIdAfter(Long bookerId, LocalDateTime start, Long id,
+                                                   LocalDateTime dateTime, PageRequest pageRequest);
 
-    //queries
-    @Query("select b from Booking b where b.booker.id = ?1 and ?2 between b.start and b.end order by b.start desc")
-    Collection<Booking> getAllByBookerId(Long bookerId, LocalDateTime dateTime, PageRequest pageRequest);
+    @Query(BOOKING_INFO + "where u.id = ?1 and b.status = ?4 and " +
+            "(b.start < ?2 or (b.start = ?2 and b.id < ?3)) order by b.start desc, b.id desc")
+    List<BookingInfoDto> findByBookerIdAndStatusAfter(Long bookerId, LocalDateTime start, Long id, State status,
+                                                      PageRequest pageRequest);
 
-    @Query("select b from Booking b left join Item i on b.item.id = i.id where i.owner.id = ?1 and " +
-            "?2 between b.start and b.end order by b.start desc")
-    Collection<Booking> getCurrentBookingsByOwnerId(Long ownerId, LocalDateTime dateTime, PageRequest pageRequest);
+    @Query(BOOKING_INFO + "where i.owner.id = ?1 and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "order by b.start desc, b.id desc")
+    List<BookingInfoDto> findAllByOwnerIdAfter(Long ownerId, LocalDateTime start, Long id,
+                                               PageRequest pageRequest);
 
-    @Query("select b from Booking b left join Item i on b.item.id = i.id where i.owner.id = ?1 and b" +
-            ".end < ?2 order by b.start desc")
-    Collection<Booking> getPastBookingsByOwnerId(Long ownerId, LocalDateTime dateTime, PageRequest pageRequest);
+    @Query(BOOKING_INFO + "where i.owner.id = ?1 and ?4 between b.start and b.end and " +
+            "(b.start < ?2 or (b.start = ?2 and b.id < ?3)) order by b.start desc, b.id desc")
+    List<BookingInfoDto> findCurrentByOwnerIdAfter(Long ownerId, LocalDateTime start, Long id,
+                                                   LocalDateTime dateTime, PageRequest pageRequest);
 
-    @Query("select b from Booking b left join Item i on b.item.id = i.id where i.owner.id = ?1 and b" +
-            ".start > ?2 order by b.start desc")
-    Collection<Booking> getFutureBookingsByOwnerId(Long ownerId, LocalDateTime dateTime, PageRequest pageRequest);
+    @Query(BOOKING_INFO + "where i.owner.id = ?1 and b.end < ?4 and " +
+            "(b.start < ?2 or (b.start = ?2 and b.id < ?3)) order by b.start desc, b.id desc")
+    List<BookingInfoDto> findPastByOwnerIdAfter(Long ownerId, LocalDateTime start, Long id,
+                                                LocalDateTime dateTime, PageRequest pageRequest);
 
-    @Query("select b from Booking b left join Item i on b.item.id = i.id where i.owner.id = ?1 and b" +
-            ".status = ?2 order by b.start desc")
-    Collection<Booking> findAllByOwnerIdAndStatus(Long ownerId, State status, PageRequest pageRequest);
+    @Query(BOOKING_INFO + "where i.owner.id = ?1 and b.start > ?4 and " +
+            "(b.start < ?2 or (b.start = ?2 and b.id < ?3)) order by b.start desc, b.id desc")
+    List<BookingInfoDto> findFutureByOwnerIdAfter(Long ownerId, LocalDateTime start, Long id,
+                                                  LocalDateTime dateTime, PageRequest pageRequest);
 
-    @Query("select b from Booking b left join Item i on b.item.id = i.id where i.owner.id = ?1 order by b.start desc")
-    Collection<Booking> findAllByOwnerId(Long ownerId, PageRequest pageRequest);
+    @Query(BOOKING_INFO + "where i.owner.id = ?1 and b.status = ?4 and " +
+            "(b.start < ?2 or (b.start = ?2 and b.id < ?3)) order by b.start desc, b.id desc")
+    List<BookingInfoDto> findByOwnerIdAndStatusAfter(Long ownerId, LocalDateTime start, Long id, State status,
+                                                     PageRequest pageRequest);
 }
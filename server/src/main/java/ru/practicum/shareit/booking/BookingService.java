@@ -1,6 +1,7 @@
 package ru.practicum.shareit.booking;
 
 import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.custom.PageCursor;
 
 import java.util.List;
 
@@ -10,9 +11,15 @@ public interface BookingService {
 
     List<BookingInfoDto> getAllByOwnerId(Long ownerId, String state, PageRequest pageRequest);
 
+    List<BookingInfoDto> getAllByUserIdAfter(Long userId, String state, PageCursor after, int size);
+
+    List<BookingInfoDto> getAllByOwnerIdAfter(Long ownerId, String state, PageCursor after, int size);
+
     BookingInfoDto getById(Long bookingId, Long userId);
 
     BookingInfoDto addBooking(Long userId, BookingDto bookingDto);
 
+    List<BookingInfoDto> addBookings(Long userId, List<BookingDto> bookingDtos);
+
     BookingInfoDto updateBooking(Long userId, Long bookingId, boolean approved);
 }
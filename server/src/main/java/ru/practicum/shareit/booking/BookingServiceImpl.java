@@ -3,11 +3,16 @@ package ru.practicum.shareit.booking;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.custom.BookingNotFoundException;
+import ru.practicum.shareit.custom.BookingOverlapException;
 import ru.practicum.shareit.custom.CustomBadRequestException;
+import ru.practicum.shareit.custom.CustomPageRequest;
 import ru.practicum.shareit.custom.ItemNotFoundException;
+import ru.practicum.shareit.custom.PageCursor;
 import ru.practicum.shareit.custom.UserNotFoundException;
 import ru.practicum.shareit.custom.ValidateBookingOwnershipException;
 import ru.practicum.shareit.item.Item;
@@ -16,51 +21,68 @@ import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Component("DefaultBookingService")
 @Slf4j
+@Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
 
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
-    private final BookingMapper bookingMapper;
 
     @Autowired
     public BookingServiceImpl(BookingRepository bookingRepository,
                               UserRepository userRepository,
-                              ItemRepository itemRepository,
-                              BookingMapper bookingMapper) {
+                              ItemRepository itemRepository) {
         this.bookingRepository = bookingRepository;
         this.userRepository = userRepository;
         this.itemRepository = itemRepository;
-        this.bookingMapper = bookingMapper;
     }
 
     public List<BookingInfoDto> getAllByUserId(Long userId, String state, PageRequest pageRequest) {
         validateAndReturnUser(userId);
 
-        Collection<Booking> result = sortByStateAndBookerId(state, userId, pageRequest);
+        List<BookingInfoDto> result = sortByStateAndBookerId(state, userId, withNewestFirst(pageRequest));
         log.info("Получен список бронирований пользователя {}", userId);
-        return result.stream().map(BookingMapper::toBookingInfoDto)
-                .sorted(Comparator.comparingLong(BookingInfoDto::getId).reversed())
-                .collect(Collectors.toList());
+        return result;
     }
 
     public List<BookingInfoDto> getAllByOwnerId(Long ownerId, String state, PageRequest pageRequest) {
         validateItemByOwner(ownerId);
 
-        Collection<Booking> result = sortByStateAndOwnerId(state, ownerId, pageRequest);
+        List<BookingInfoDto> result = sortByStateAndOwnerId(state, ownerId, withNewestFirst(pageRequest));
         log.info("Получен список бронирований владельца {}", ownerId);
-        return result.stream().map(BookingMapper::toBookingInfoDto)
-                .sorted(Comparator.comparingLong(BookingInfoDto::getId).reversed())
-                .collect(Collectors.toList());
+        return result;
+    }
+
+    public List<BookingInfoDto> getAllByUserIdAfter(Long userId, String state, PageCursor after, int size) {
+        validateAndReturnUser(userId);
+
+        List<BookingInfoDto> result = seekByStateAndBookerId(state, userId, after == null ? PageCursor.latest() : after,
+                CustomPageRequest.of(0, size));
+        log.info("Получена страница бронирований пользователя {} после {}", userId, after);
+        return result;
+    }
+
+    public List<BookingInfoDto> getAllByOwnerIdAfter(Long ownerId, String state, PageCursor after, int size) {
+        validateItemByOwner(ownerId);
+
+        List<BookingInfoDto> result = seekByStateAndOwnerId(state, ownerId, after == null ? PageCursor.latest() : after,
+                CustomPageRequest.of(0, size));
+        log.info("Получена страница бронирований владельца {} после {}", ownerId, after);
+        return result;
     }
 
     public BookingInfoDto getById(Long bookingId, Long userId) {
@@ -77,20 +99,47 @@ public class BookingServiceImpl implements BookingService {
         return result;
     }
 
+    @Transactional
     public BookingInfoDto addBooking(Long userId, BookingDto bookingDto) {
         checkDatesRange(bookingDto);
         Item itemInDB = validateAndReturnItem(bookingDto.getItemId());
         User userInDB = validateAndReturnUser(userId);
         validateOwnership(userInDB, itemInDB);
+        validateAvailability(itemInDB, bookingDto);
 
         bookingDto.setStatus(State.WAITING);
-        Booking booking = bookingMapper.toBooking(bookingDto, userId);
+        Booking booking = BookingMapper.toBooking(bookingDto, itemInDB, userInDB);
         Booking bookingToAdd = bookingRepository.save(booking);
         BookingInfoDto result = BookingMapper.toBookingInfoDto(bookingToAdd);
         log.info("Пользователь {} добавил новое бронирование: {}", userId, result);
         return result;
     }
 
+    //all bookings or none: validated against the items locked at once and inserted in jdbc batches
+    @Transactional
+    public List<BookingInfoDto> addBookings(Long userId, List<BookingDto> bookingDtos) {
+        bookingDtos.forEach(this::checkDatesRange);
+        User userInDB = validateAndReturnUser(userId);
+        if (bookingDtos.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Item> itemsInDB = validateAndReturnItems(bookingDtos);
+        itemsInDB.values().forEach(item -> validateOwnership(userInDB, item));
+        validateAvailability(itemsInDB.keySet(), bookingDtos);
+
+        List<Booking> bookings = new ArrayList<>();
+        for (BookingDto bookingDto : bookingDtos) {
+            bookingDto.setStatus(State.WAITING);
+            bookings.add(BookingMapper.toBooking(bookingDto, itemsInDB.get(bookingDto.getItemId()), userInDB));
+        }
+        List<BookingInfoDto> result = bookingRepository.saveAll(bookings).stream()
+                .map(BookingMapper::toBookingInfoDto)
+                .collect(Collectors.toList());
+        log.info("Пользователь {} добавил {} новых бронирований", userId, result.size());
+        return result;
+    }
+
+    @Transactional
     public BookingInfoDto updateBooking(Long userId, Long bookingId, boolean approved) {
         Booking bookingInDB = validateAndReturnBooking(bookingId);
 
@@ -98,35 +147,40 @@ public class BookingServiceImpl implements BookingService {
             log.info("Бронирование с id {} для пользователя {} не найдено", bookingId, userId);
             throw new BookingNotFoundException("Бронирование не найдено");
         }
-        checkState(bookingInDB, approved);
+        State status = approved ? State.APPROVED : State.REJECTED;
+        if (bookingRepository.updateStatus(bookingId, State.WAITING, status) == 0) {
+            log.warn("Невозможно поменять статус у бронирования: {}", bookingId);
+            throw new CustomBadRequestException("Невозможно поменять статус бронирования");
+        }
 
-        Booking bookingToUpdate = bookingRepository.save(bookingInDB);
-        BookingInfoDto result = BookingMapper.toBookingInfoDto(bookingToUpdate);
+        //the entity read above is not changed, so no second update is flushed
+        BookingInfoDto result = BookingMapper.toBookingInfoDto(bookingInDB);
+        result.setStatus(status);
         log.info("Бронирование c id {} обновлено: {}", bookingId, result);
         return result;
     }
 
     /* STATE METHODS */
 
-    private Collection<Booking> sortByStateAndBookerId(String state, Long bookerId, PageRequest pageRequest) {
+    private List<BookingInfoDto> sortByStateAndBookerId(String state, Long bookerId, PageRequest pageRequest) {
         switch (state.toUpperCase()) {
             case "CURRENT":
                 return bookingRepository.getAllByBookerId(bookerId, LocalDateTime.now(), pageRequest);
             case "PAST":
-                return bookingRepository.findAllByBookerIdAndEndBeforeOrderByStartDesc(bookerId, LocalDateTime.now(),
+                return bookingRepository.findAllByBookerIdAndEndBefore(bookerId, LocalDateTime.now(),
                         pageRequest);
             case "FUTURE":
-                return bookingRepository.findAllByBookerIdAndStartAfterOrderByStartDesc(bookerId, LocalDateTime.now(),
+                return bookingRepository.findAllByBookerIdAndStartAfter(bookerId, LocalDateTime.now(),
                         pageRequest);
             case "ALL":
-                return bookingRepository.findAllByBookerIdOrderByStartDesc(bookerId, pageRequest);
+                return bookingRepository.findAllByBookerId(bookerId, pageRequest);
             default:
-                return bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(bookerId, State.from(state),
+                return bookingRepository.findAllByBookerIdAndStatus(bookerId, State.from(state),
                         pageRequest);
         }
     }
 
-    private Collection<Booking> sortByStateAndOwnerId(String state, Long ownerId, PageRequest pageRequest) {
+    private List<BookingInfoDto> sortByStateAndOwnerId(String state, Long ownerId, PageRequest pageRequest) {
         switch (state.toUpperCase()) {
             case "CURRENT":
                 return bookingRepository.getCurrentBookingsByOwnerId(ownerId, LocalDateTime.now(), pageRequest);
@@ -141,15 +195,49 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
-    private void checkState(Booking booking, Boolean approved) {
-        if (booking.getStatus().equals(State.APPROVED) ||
-                booking.getStatus().equals(State.REJECTED)) {
-            log.warn("Невозможно поменять статус у бронирования: {}", booking);
-            throw new CustomBadRequestException("Невозможно поменять статус бронирования");
+    private List<BookingInfoDto> seekByStateAndBookerId(String state, Long bookerId, PageCursor after,
+                                                        PageRequest pageRequest) {
+        switch (state.toUpperCase()) {
+            case "CURRENT":
+                return bookingRepository.findCurrentByBookerIdAfter(bookerId, after.getKey(), after.getId(),
+                        LocalDateTime.now(), pageRequest);
+            case "PAST":
+                return bookingRepository.findPastByBookerIdAfter(bookerId, after.getKey(), after.getId(),
+                        LocalDateTime.now(), pageRequest);
+            case "FUTURE":
+                return bookingRepository.findFutureByBookerIdAfter(bookerId, after.getKey(), after.getId(),
+                        LocalDateTime.now(), pageRequest);
+            case "ALL":
+                return bookingRepository.findAllByBookerIdAfter(bookerId, after.getKey(), after.getId(), pageRequest);
+            default:
+                return bookingRepository.findByBookerIdAndStatusAfter(bookerId, after.getKey(), after.getId(),
+                        State.from(state), pageRequest);
+        }
+    }
+
+    private List<BookingInfoDto> seekByStateAndOwnerId(String state, Long ownerId, PageCursor after,
+                                                       PageRequest pageRequest) {
+        switch (state.toUpperCase()) {
+            case "CURRENT":
+                return bookingRepository.findCurrentByOwnerIdAfter(ownerId, after.getKey(), after.getId(),
+                        LocalDateTime.now(), pageRequest);
+            case "PAST":
+                return bookingRepository.findPastByOwnerIdAfter(ownerId, after.getKey(), after.getId(),
+                        LocalDateTime.now(), pageRequest);
+            case "FUTURE":
+                return bookingRepository.findFutureByOwnerIdAfter(ownerId, after.getKey(), after.getId(),
+                        LocalDateTime.now(), pageRequest);
+            case "ALL":
+                return bookingRepository.findAllByOwnerIdAfter(ownerId, after.getKey(), after.getId(), pageRequest);
+            default:
+                return bookingRepository.findByOwnerIdAndStatusAfter(ownerId, after.getKey(), after.getId(),
+                        State.from(state), pageRequest);
         }
-        if (approved) {
-            booking.setStatus(State.APPROVED);
-        } else booking.setStatus(State.REJECTED);
+    }
+
+    //id breaks ties between bookings with the same start, so pages never overlap
+    private static PageRequest withNewestFirst(PageRequest pageRequest) {
+        return pageRequest.withSort(Sort.by(Sort.Direction.DESC, "start", "id"));
     }
 
     /* VALIDATION METHODS */
@@ -165,18 +253,38 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
+    //locks the item: a concurrent booking of it waits until this one is saved and sees it
     private Item validateAndReturnItem(Long itemId) {
-        Optional<Item> item = itemRepository.findById(itemId);
+        return checkAvailable(itemId, itemRepository.findByIdForUpdate(itemId).orElse(null));
+    }
+
+    //locks all items of the batch with one query
+    private Map<Long, Item> validateAndReturnItems(List<BookingDto> bookingDtos) {
+        Set<Long> itemIds = bookingDtos.stream()
+                .map(BookingDto::getItemId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Item> items = itemRepository.findAllByIdInForUpdate(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
 
-        if (item.isEmpty()) {
+        Map<Long, Item> result = new HashMap<>();
+        for (BookingDto bookingDto : bookingDtos) {
+            result.put(bookingDto.getItemId(), checkAvailable(bookingDto.getItemId(),
+                    items.get(bookingDto.getItemId())));
+        }
+        return result;
+    }
+
+    private Item checkAvailable(Long itemId, Item item) {
+        if (item == null) {
             log.warn("Вещь с id {} не найдена", itemId);
             throw new ItemNotFoundException("Вещь не найдена");
         }
-        if (!item.get().getAvailable()) {
+        if (!item.getAvailable()) {
             log.warn("Вещь с id {} не доступна", itemId);
             throw new CustomBadRequestException("Вещь недоступна");
         }
-        return item.get();
+        return item;
     }
 
     private void validateOwnership(User user, Item item) {
@@ -186,6 +294,38 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
+    private void validateAvailability(Item item, BookingDto bookingDto) {
+        if (bookingRepository.existsByItemIdAndStatusInAndStartBeforeAndEndAfter(item.getId(), State.HOLDING,
+                bookingDto.getEnd(), bookingDto.getStart())) {
+            log.warn("Вещь с id {} уже забронирована на период с {} по {}", item.getId(), bookingDto.getStart(),
+                    bookingDto.getEnd());
+            throw new BookingOverlapException("Вещь уже забронирована на этот период");
+        }
+    }
+
+    //a booking of the batch may neither overlap a stored one nor an earlier booking of the same batch
+    private void validateAvailability(Collection<Long> itemIds, List<BookingDto> bookingDtos) {
+        LocalDateTime from = bookingDtos.stream().map(BookingDto::getStart).min(LocalDateTime::compareTo).orElseThrow();
+        LocalDateTime to = bookingDtos.stream().map(BookingDto::getEnd).max(LocalDateTime::compareTo).orElseThrow();
+        Map<Long, List<AvailabilityWindowDto>> heldPeriods = new HashMap<>();
+        for (HeldPeriodDto held : bookingRepository.findHeldByItemIdIn(itemIds, State.HOLDING, from, to)) {
+            heldPeriods.computeIfAbsent(held.getItemId(), id -> new ArrayList<>())
+                    .add(new AvailabilityWindowDto(held.getStart(), held.getEnd()));
+        }
+
+        for (BookingDto bookingDto : bookingDtos) {
+            List<AvailabilityWindowDto> periods = heldPeriods.computeIfAbsent(bookingDto.getItemId(),
+                    id -> new ArrayList<>());
+            if (periods.stream().anyMatch(period -> period.getStart().isBefore(bookingDto.getEnd()) &&
+                    period.getEnd().isAfter(bookingDto.getStart()))) {
+                log.warn("Вещь с id {} уже забронирована на период с {} по {}", bookingDto.getItemId(),
+                        bookingDto.getStart(), bookingDto.getEnd());
+                throw new BookingOverlapException("Вещь уже забронирована на этот период");
+            }
+            periods.add(new AvailabilityWindowDto(bookingDto.getStart(), bookingDto.getEnd()));
+        }
+    }
+
     private void validateItemByOwner(Long ownerId) {
         if (!itemRepository.existsByOwnerId(ownerId)) {
             log.warn("Вещь с id владельца {} не найдена", ownerId);
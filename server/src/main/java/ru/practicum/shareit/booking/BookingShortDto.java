@@ -0,0 +1,10 @@
+package ru.practicum.shareit.booking;
+
+//row of the native last and next booking queries
+public interface BookingShortDto {
+    Long getItemId();
+
+    Long getId();
+
+    Long getBookerId();
+}
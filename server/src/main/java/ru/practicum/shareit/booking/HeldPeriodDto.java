@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+//a period [start, end) held by a booking of the item: only what the overlap check of a booking batch reads
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class HeldPeriodDto {
+    private Long itemId;
+    private LocalDateTime start;
+    private LocalDateTime end;
+}
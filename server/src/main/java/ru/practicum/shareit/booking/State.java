@@ -2,6 +2,10 @@ package ru.practicum.shareit.booking;
 
 import ru.practicum.shareit.custom.UnsupportedStateException;
 
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum State {
     WAITING,
     APPROVED,
@@ -11,6 +15,9 @@ public enum State {
     FUTURE,
     ALL;
 
+    //a booking in these states holds its item for its period, a rejected one releases it
+    public static final Set<State> HOLDING = Collections.unmodifiableSet(EnumSet.of(WAITING, APPROVED));
+
     static State from(String state) {
         for (State value : State.values()) {
             if (value.name().equals(state)) {
@@ -0,0 +1,52 @@
+package ru.practicum.shareit.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.Properties;
+import java.util.UUID;
+
+/*
+ * Регионы второго уровня кэша Hibernate для User и Item. Кэши создаются здесь, а не в конфиге Caffeine,
+ * чтобы размер и время жизни задавались обычными свойствами shareit.cache.*
+ */
+@Configuration
+public class EntityCacheConfig {
+    public static final String USERS_REGION = "users";
+    public static final String ITEMS_REGION = "items";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager(@Value("${shareit.cache.users.maximum-size}") long usersSize,
+                                           @Value("${shareit.cache.users.time-to-live}") Duration usersTtl,
+                                           @Value("${shareit.cache.items.maximum-size}") long itemsSize,
+                                           @Value("${shareit.cache.items.time-to-live}") Duration itemsTtl) {
+        //свой URI на каждый контекст, иначе контексты тестов делили бы один менеджер
+        CacheManager cacheManager = new CaffeineCachingProvider().getCacheManager(
+                URI.create("shareit:" + UUID.randomUUID()), getClass().getClassLoader(), new Properties());
+        cacheManager.createCache(USERS_REGION, region(usersSize, usersTtl));
+        cacheManager.createCache(ITEMS_REGION, region(itemsSize, itemsTtl));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheCustomizer(CacheManager entityCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(long maximumSize, Duration timeToLive) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(timeToLive.toNanos()));
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
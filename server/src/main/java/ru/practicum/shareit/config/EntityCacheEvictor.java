@@ -0,0 +1,25 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.custom.AfterCommit;
+
+import javax.persistence.EntityManagerFactory;
+
+/*
+ * Сброс второго уровня кэша там, где строки меняет сама база (ON DELETE CASCADE) и Hibernate об этом не знает
+ */
+@Component
+public class EntityCacheEvictor {
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    public EntityCacheEvictor(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    //до коммита параллельное чтение успело бы положить в кэш строки, которые каскад еще удалит
+    public void evictAll(Class<?> entityClass) {
+        AfterCommit.run(() -> entityManagerFactory.getCache().evict(entityClass));
+    }
+}
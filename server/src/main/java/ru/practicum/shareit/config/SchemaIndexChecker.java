@@ -0,0 +1,81 @@
+package ru.practicum.shareit.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Component
+@Slf4j
+public class SchemaIndexChecker {
+
+    //index name -> table, must be kept in sync with schema.sql
+    public static final Map<String, String> REQUIRED_INDEXES = Map.of(
+            "idx_bookings_booker_start", "bookings",
+            "idx_bookings_item_end_asc", "bookings",
+            "idx_bookings_item_end_desc", "bookings",
+            "idx_items_owner", "items",
+            "idx_items_request", "items",
+            "idx_comments_item", "comments",
+            "idx_requests_requestor_created", "requests"
+    );
+
+    private final DataSource dataSource;
+
+    @Autowired
+    public SchemaIndexChecker(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkIndexes() {
+        List<String> missing = findMissingIndexes();
+        if (missing.isEmpty()) {
+            log.info("Все индексы схемы на месте: {}", REQUIRED_INDEXES.keySet());
+        } else {
+            missing.forEach(index -> log.warn("Отсутствует индекс {} на таблице {}", index,
+                    REQUIRED_INDEXES.get(index)));
+        }
+    }
+
+    public List<String> findMissingIndexes() {
+        List<String> result = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (Map.Entry<String, String> index : REQUIRED_INDEXES.entrySet()) {
+                if (!findIndexNames(metaData, index.getValue()).contains(index.getKey())) {
+                    result.add(index.getKey());
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("Не удалось проверить индексы схемы: {}", e.getMessage());
+        }
+        return result;
+    }
+
+    private Set<String> findIndexNames(DatabaseMetaData metaData, String table) throws SQLException {
+        String tableName = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase() : table;
+        Set<String> result = new HashSet<>();
+        try (ResultSet indexes = metaData.getIndexInfo(null, null, tableName, false, true)) {
+            while (indexes.next()) {
+                String indexName = indexes.getString("INDEX_NAME");
+                if (indexName != null) {
+                    result.add(indexName.toLowerCase());
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.custom;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/*
+ * Изменение состояния вне базы (индекс, кэш) после коммита текущей транзакции: при откате оно не выполняется,
+ * и параллельная транзакция не увидит его раньше данных. Без транзакции выполняется сразу
+ */
+public class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    public static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
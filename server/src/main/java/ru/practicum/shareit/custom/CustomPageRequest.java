@@ -15,6 +15,16 @@ public class CustomPageRequest extends PageRequest {
         return new CustomPageRequest(offset, size, Sort.unsorted());
     }
 
+    public static CustomPageRequest of(int offset, int size, Sort sort) {
+        return new CustomPageRequest(offset, size, sort);
+    }
+
+    //PageRequest.withSort would recalculate the offset from the page number
+    @Override
+    public CustomPageRequest withSort(Sort sort) {
+        return new CustomPageRequest(offset, getPageSize(), sort);
+    }
+
     @Override
     public long getOffset() {
         return offset;
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.custom;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+/*
+ * ETag ответа: хэш полей, из которых ответ собирается. Контроллер сравнивает его с If-None-Match
+ * через WebRequest.checkNotModified и при совпадении отвечает 304 без тела
+ */
+public class EntityTag {
+
+    private EntityTag() {
+    }
+
+    public static String of(Object... parts) {
+        StringBuilder content = new StringBuilder();
+        for (Object part : parts) {
+            append(content, part);
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    private static void append(StringBuilder content, Object part) {
+        if (part instanceof Collection) {
+            content.append('[');
+            ((Collection<?>) part).forEach(element -> append(content, element));
+            content.append(']');
+        } else {
+            //the separator keeps ("ab", "c") and ("a", "bc") apart
+            content.append(part).append('\u0000');
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package ru.practicum.shareit.custom;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/*
+ * Позиция последней записи страницы для keyset-пагинации: ключ сортировки и id как разделитель равных ключей.
+ * Клиенту отдается непрозрачной строкой в заголовке X-Next-Cursor и возвращается в параметре cursor
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class PageCursor {
+    public static final String HEADER = "X-Next-Cursor";
+    private static final String SEPARATOR = "|";
+    //позже любой реальной даты, первая страница списков по убыванию начинается отсюда
+    private static final LocalDateTime LATEST_KEY = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private final LocalDateTime key;
+    private final Long id;
+
+    private PageCursor(LocalDateTime key, Long id) {
+        this.key = key;
+        this.id = id;
+    }
+
+    public static PageCursor of(LocalDateTime key, Long id) {
+        return new PageCursor(key, id);
+    }
+
+    public static PageCursor of(Long id) {
+        return new PageCursor(null, id);
+    }
+
+    public static PageCursor latest() {
+        return new PageCursor(LATEST_KEY, Long.MAX_VALUE);
+    }
+
+    //пустой курсор означает первую страницу и возвращается как null
+    public static PageCursor decode(String token) {
+        return decode(token, true);
+    }
+
+    //курсор списка, упорядоченного только по id, без ключа сортировки
+    public static PageCursor decodeId(String token) {
+        return decode(token, false);
+    }
+
+    //курсор другого списка или с непозитивным id отклоняется, а не превращается в пустую страницу
+    private static PageCursor decode(String token, boolean keyed) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            if (keyed != separator >= 0) {
+                throw new CustomBadRequestException("Курсор страницы от другого списка: " + token);
+            }
+            PageCursor cursor = keyed ? of(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1))) : of(Long.parseLong(value));
+            if (cursor.getId() <= 0) {
+                throw new CustomBadRequestException("Некорректный курсор страницы: " + token);
+            }
+            return cursor;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new CustomBadRequestException("Некорректный курсор страницы: " + token);
+        }
+    }
+
+    public String encode() {
+        String value = key == null ? String.valueOf(id) : key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    //неполная страница - последняя, курсор на следующую не выдается
+    public static <T> void writeNext(HttpServletResponse response, List<T> page, int size,
+                                     Function<T, PageCursor> cursorOf) {
+        if (!page.isEmpty() && page.size() == size) {
+            response.setHeader(HEADER, cursorOf.apply(page.get(page.size() - 1)).encode());
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package ru.practicum.shareit.item;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.Collection;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
-    Collection<Comment> findAllByItemId(Long itemId);
+    @Query("select c from Comment c join fetch c.author where c.itemId in ?1 order by c.id")
+    Collection<Comment> findAllByItemIdIn(Collection<Long> itemIds);
 }
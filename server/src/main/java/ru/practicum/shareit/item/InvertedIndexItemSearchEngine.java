@@ -0,0 +1,95 @@
+package ru.practicum.shareit.item;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.custom.AfterCommit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+@ConditionalOnProperty(name = "shareit.search.mode", havingValue = "index")
+@Slf4j
+public class InvertedIndexItemSearchEngine implements ItemSearchEngine {
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final ItemRepository itemRepository;
+    private final ItemSearchIndex index = new ItemSearchIndex();
+
+    @Autowired
+    public InvertedIndexItemSearchEngine(ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        index.clear();
+        Page<Item> page;
+        int pageNumber = 0;
+        do {
+            page = itemRepository.findAll(PageRequest.of(pageNumber++, REBUILD_BATCH_SIZE, Sort.by("id")));
+            page.forEach(this::index);
+        } while (page.hasNext());
+        log.info("Поисковый индекс построен, вещей в индексе: {}", index.size());
+    }
+
+    public List<Item> search(String text, PageRequest pageRequest) {
+        while (true) {
+            long[] ids = index.search(text, pageRequest.getOffset(), pageRequest.getPageSize());
+            if (ids.length == 0) {
+                return new ArrayList<>();
+            }
+            //the only database round trip: hydration of the page
+            Map<Long, Item> items = itemRepository.findAllWithOwnerByIdIn(
+                            Arrays.stream(ids).boxed().collect(Collectors.toList()))
+                    .stream()
+                    .collect(Collectors.toMap(Item::getId, Function.identity()));
+            if (items.size() == ids.length) {
+                return Arrays.stream(ids)
+                        .mapToObj(items::get)
+                        .collect(Collectors.toList());
+            }
+            //deleted past the services, e.g. in the database by hand: dropped, and the page is read again in full
+            Arrays.stream(ids)
+                    .filter(id -> !items.containsKey(id))
+                    .forEach(index::remove);
+        }
+    }
+
+    //the index follows committed data: changes are applied after the commit and dropped on a rollback
+    public void index(Item item) {
+        long itemId = item.getId();
+        if (Boolean.TRUE.equals(item.getAvailable())) {
+            String name = item.getName();
+            String description = item.getDescription();
+            AfterCommit.run(() -> index.put(itemId, name, description));
+        } else {
+            AfterCommit.run(() -> index.remove(itemId));
+        }
+    }
+
+    public void remove(Long itemId) {
+        AfterCommit.run(() -> index.remove(itemId));
+    }
+
+    int size() {
+        return index.size();
+    }
+
+    //called before the owner is deleted: the database cascade removes the items without the services
+    public void removeAllOfOwner(Long ownerId) {
+        List<Long> itemIds = itemRepository.findIdsByOwnerId(ownerId);
+        AfterCommit.run(() -> itemIds.forEach(index::remove));
+    }
+}
@@ -1,12 +1,18 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import ru.practicum.shareit.config.EntityCacheConfig;
 import ru.practicum.shareit.user.User;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
@@ -15,10 +21,13 @@ import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
+import javax.persistence.OrderBy;
 import javax.persistence.Table;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheConfig.ITEMS_REGION)
 @Table(name = "items", schema = "public")
 @Getter
 @Setter
@@ -41,7 +50,12 @@ public class Item {
     private User owner;
     @Column(name = "request_id")
     private Long requestId;
+    //read only, a comment is added with its item_id. Lazy, and the first collection touched
+    //loads the comments of all the items of the session, up to the batch size, in one query
+    @JsonIgnore
     @OneToMany
-    @JoinColumn(name = "id")
+    @JoinColumn(name = "item_id", insertable = false, updatable = false)
+    @BatchSize(size = 100)
+    @OrderBy("id")
     private List<Comment> comments;
 }
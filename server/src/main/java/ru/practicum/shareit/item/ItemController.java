@@ -3,6 +3,7 @@ package ru.practicum.shareit.item;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -13,10 +14,15 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.booking.AvailabilityWindowDto;
 import ru.practicum.shareit.custom.CustomPageRequest;
+import ru.practicum.shareit.custom.PageCursor;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -36,16 +42,36 @@ public class ItemController {
                                     @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
                                     Integer from,
                                     @Positive @RequestParam(name = "size", defaultValue = "10")
-                                    Integer size
+                                    Integer size,
+                                    @RequestParam(name = "cursor", required = false)
+                                    String cursor,
+                                    HttpServletResponse response
     ) {
+        if (cursor != null) {
+            List<ItemInfoDto> result = itemService.getAllAfter(userId, PageCursor.decodeId(cursor), size);
+            PageCursor.writeNext(response, result, size, i -> PageCursor.of(i.getId()));
+            return result;
+        }
         PageRequest pageRequest = CustomPageRequest.of(from, size);
         return itemService.getAll(userId, pageRequest);
     }
 
+    //a matching If-None-Match is answered with 304 before the item view is built
     @GetMapping("/{itemId}")
     public ItemInfoDto getById(@RequestHeader("X-Sharer-User-Id") Long userId,
-                               @PathVariable Long itemId) {
-        return itemService.getById(itemId, userId);
+                               @PathVariable Long itemId,
+                               WebRequest request) {
+        return itemService.getById(itemId, userId, request::checkNotModified);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public List<AvailabilityWindowDto> getFreeWindows(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                      @PathVariable Long itemId,
+                                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                      LocalDateTime from,
+                                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                      LocalDateTime to) {
+        return itemService.getFreeWindows(itemId, userId, from, to);
     }
 
     @PostMapping
@@ -7,15 +7,9 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
-import ru.practicum.shareit.booking.Booking;
-import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserDto;
 
-import java.time.LocalDateTime;
-import java.util.Collection;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Getter
 @Setter
@@ -29,28 +23,17 @@ public class ItemInfoDto {
     private String name;
     private String description;
     private Boolean available;
-    private User owner;
+    private UserDto owner;
     private ItemBookingDto lastBooking;
     private ItemBookingDto nextBooking;
     private List<CommentDto> comments;
     private Long requestId;
 
-    public Optional<Booking> findLastBooking(Collection<Booking> bookings) {
-        List<Booking> result = bookings.stream()
-                .filter(booking -> booking.getEnd().isBefore(LocalDateTime.now()))
-                .sorted(Comparator.comparing(Booking::getEnd))
-                .collect(Collectors.toList());
-
-        return (result.isEmpty()) ? Optional.empty() : Optional.of(result.get(0));
-    }
-
-    public Optional<Booking> findNextBooking(Collection<Booking> bookings) {
-        List<Booking> result = bookings.stream()
-                .filter(booking -> booking.getEnd().isAfter(LocalDateTime.now()))
-                .sorted(Comparator.comparing(Booking::getEnd).reversed())
-                .collect(Collectors.toList());
-
-        return (result.isEmpty()) ? Optional.empty() : Optional.of(result.get(0));
+    //constructor expression of the owner list queries in ItemRepository, bookings and comments are added by ItemMapper
+    public ItemInfoDto(Long id, String name, String description, Boolean available, Long requestId, Long ownerId,
+                       String ownerName, String ownerEmail) {
+        this(id, name, description, available, new UserDto(ownerId, ownerName, ownerEmail), null, null, null,
+                requestId);
     }
 
     @AllArgsConstructor
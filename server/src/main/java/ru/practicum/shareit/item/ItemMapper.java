@@ -3,16 +3,19 @@ package ru.practicum.shareit.item;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
-import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingShortDto;
 import ru.practicum.shareit.custom.UserNotFoundException;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.UserRepository;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -51,38 +54,49 @@ public class ItemMapper {
         return result;
     }
 
+    //a single item reads its own collection: a new item has none to load
     public ItemInfoDto toItemInfoDto(Item item) {
-        ItemInfoDto result = ItemInfoDto.builder()
-                .id(item.getId())
-                .name(item.getName())
-                .description(item.getDescription())
-                .available(item.getAvailable())
-                .owner(item.getOwner())
-                .requestId(item.getRequestId())
-                .build();
-
-        //bookings and comments to add
-        Collection<Booking> bookings = bookingRepository.findByItemId(item.getId());
+        return toItemInfoDto(item, item.getComments());
+    }
 
-        Optional<Booking> lastBooking = result.findLastBooking(bookings);
-        lastBooking.ifPresent(booking -> result.setLastBooking(new ItemInfoDto.ItemBookingDto(booking.getId(),
-                booking.getBooker().getId())));
+    //comments already read by the caller
+    public ItemInfoDto toItemInfoDto(Item item, Collection<Comment> comments) {
+        return withBookings(List.of(toItemInfoDtoWithoutBookings(item)),
+                Map.of(item.getId(), toCommentDtoList(comments))).get(0);
+    }
 
-        Optional<Booking> nextBooking = result.findNextBooking(bookings);
-        nextBooking.ifPresent(booking -> result.setNextBooking(new ItemInfoDto.ItemBookingDto(booking.getId(),
-                booking.getBooker().getId())));
+    //owners come with the items; comments, last and next bookings take one query each for the whole page
+    public List<ItemInfoDto> toItemInfoDtoList(Collection<Item> items) {
+        return withBookingsAndComments(items.stream()
+                .map(this::toItemInfoDtoWithoutBookings)
+                .collect(Collectors.toList()));
+    }
 
-        findAndSetComments(item, result);
-        return result;
+    //fills last and next bookings and comments of a page read without them
+    public List<ItemInfoDto> withBookingsAndComments(List<ItemInfoDto> items) {
+        if (items.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> itemIds = items.stream()
+                .map(ItemInfoDto::getId)
+                .collect(Collectors.toList());
+        Map<Long, List<CommentDto>> comments = commentRepository.findAllByItemIdIn(itemIds).stream()
+                .collect(Collectors.groupingBy(Comment::getItemId,
+                        Collectors.mapping(commentMapper::toCommentDto, Collectors.toList())));
+        return withBookings(items, comments);
     }
 
     public ItemInfoDto toItemInfoDtoNotOwner(Item item) {
+        return toItemInfoDtoNotOwner(item, item.getComments());
+    }
+
+    public ItemInfoDto toItemInfoDtoNotOwner(Item item, Collection<Comment> comments) {
         ItemInfoDto result = ItemInfoDto.builder()
                 .id(item.getId())
                 .name(item.getName())
                 .description(item.getDescription())
                 .available(item.getAvailable())
-                .owner(item.getOwner())
+                .owner(UserMapper.toUserDto(item.getOwner()))
                 .requestId(item.getRequestId())
                 .build();
 
@@ -90,7 +104,7 @@ public class ItemMapper {
         result.setLastBooking(null);
         result.setNextBooking(null);
 
-        findAndSetComments(item, result);
+        result.setComments(toCommentDtoList(comments));
         return result;
     }
 
@@ -110,17 +124,55 @@ public class ItemMapper {
 
     }
 
-    private void findAndSetComments(Item item, ItemInfoDto itemInfoDto) {
-        List<CommentDto> comments =
-                commentRepository.findAllByItemId(item.getId()).stream()
-                        .map(commentMapper::toCommentDto)
-                        .collect(Collectors.toList());
+    private ItemInfoDto toItemInfoDtoWithoutBookings(Item item) {
+        return ItemInfoDto.builder()
+                .id(item.getId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.getAvailable())
+                .owner(UserMapper.toUserDto(item.getOwner()))
+                .requestId(item.getRequestId())
+                .build();
+    }
+
+    private List<ItemInfoDto> withBookings(List<ItemInfoDto> items, Map<Long, List<CommentDto>> comments) {
+        if (items.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> itemIds = items.stream()
+                .map(ItemInfoDto::getId)
+                .collect(Collectors.toList());
+        LocalDateTime now = LocalDateTime.now();
+
+        //one query per kind of data for the whole page
+        Map<Long, ItemInfoDto.ItemBookingDto> lastBookings =
+                toItemBookings(bookingRepository.findLastBookings(itemIds, now));
+        Map<Long, ItemInfoDto.ItemBookingDto> nextBookings =
+                toItemBookings(bookingRepository.findNextBookings(itemIds, now));
+
+        items.forEach(item -> {
+            item.setLastBooking(lastBookings.get(item.getId()));
+            item.setNextBooking(nextBookings.get(item.getId()));
+            item.setComments(comments.getOrDefault(item.getId(), new ArrayList<>()));
+        });
+        return items;
+    }
+
+    private Map<Long, ItemInfoDto.ItemBookingDto> toItemBookings(Collection<BookingShortDto> bookings) {
+        //one row per item: bookings with the same end date are told apart by id in the query
+        return bookings.stream()
+                .collect(Collectors.toMap(BookingShortDto::getItemId,
+                        booking -> new ItemInfoDto.ItemBookingDto(booking.getId(), booking.getBookerId())));
+    }
 
-        if (comments.isEmpty()) {
-            itemInfoDto.setComments(new ArrayList<>());
-        } else {
-            itemInfoDto.setComments(comments);
+    //an item built in this session, not loaded, has no collection yet
+    private List<CommentDto> toCommentDtoList(Collection<Comment> comments) {
+        if (comments == null) {
+            return new ArrayList<>();
         }
+        return comments.stream()
+                .map(commentMapper::toCommentDto)
+                .collect(Collectors.toList());
     }
 
     private User getOwner(Long ownerId) {
@@ -132,4 +184,4 @@ public class ItemMapper {
             return owner.get();
         }
     }
-}
\ No newline at end of file
+}
@@ -2,20 +2,61 @@ package ru.practicum.shareit.item;
 
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 
+import javax.persistence.LockModeType;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
-    Collection<Item> findByOwnerId(Long userId, PageRequest pageRequest);
+    //owner lists are read straight into the response, without the item and owner entities
+    String ITEM_INFO = "select new ru.practicum.shareit.item.ItemInfoDto(i.id, i.name, i.description, i.available, " +
+            "i.requestId, o.id, o.name, o.email) from Item i join i.owner o ";
 
-    Collection<Item> findByNameContainsOrDescriptionContainsIgnoreCase(String nameText, String descriptionText,
-                                                                       PageRequest pageRequest);
+    @Query(ITEM_INFO + "where o.id = ?1")
+    List<ItemInfoDto> findByOwnerId(Long userId, PageRequest pageRequest);
+
+    //% and _ of the text are wildcards here unless escaped with a backslash, see LikeItemSearchEngine
+    //the owner is joined here: loaded one by one it would take a statement per batch of owners
+    @Query("select i from Item i join fetch i.owner where i.available = true and " +
+            "(upper(i.name) like upper(concat('%', ?1, '%')) escape '\\' " +
+            "or upper(i.description) like upper(concat('%', ?1, '%')) escape '\\') order by i.id")
+    List<Item> searchAvailable(String escapedText, PageRequest pageRequest);
+
+    //ids in order of rank, the items are read with their owners by findAllWithOwnerByIdIn
+    @Query(value = "select i.id from items i where i.is_available and " +
+            "to_tsvector('simple', i.name || ' ' || i.description) @@ to_tsquery('simple', ?1) " +
+            "order by ts_rank(to_tsvector('simple', i.name || ' ' || i.description), " +
+            "to_tsquery('simple', ?1)) desc, i.id", nativeQuery = true)
+    List<Long> searchAvailableFullText(String tsQuery, PageRequest pageRequest);
+
+    @Query("select i from Item i join fetch i.owner where i.id in ?1")
+    List<Item> findAllWithOwnerByIdIn(Collection<Long> ids);
 
     Boolean existsByOwnerId(Long ownerId);
 
+    @Query("select i.id from Item i where i.owner.id = ?1")
+    List<Long> findIdsByOwnerId(Long ownerId);
+
     List<Item> findAllByRequestId(Long requestId);
 
+    List<Item> findAllByRequestIdIn(Collection<Long> requestIds);
+
     Optional<Item> findByIdAndOwner_Id(Long id, Long ownerId);
+
+    //bookings of one item are checked and saved one at a time, the row stays locked until the commit
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id = ?1")
+    Optional<Item> findByIdForUpdate(Long id);
+
+    //items of a booking batch, locked in the order of ids so that two batches never wait for each other in a cycle
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id in ?1 order by i.id")
+    List<Item> findAllByIdInForUpdate(Collection<Long> ids);
+
+    //keyset: the page after the item with the given id
+    @Query(ITEM_INFO + "where o.id = ?1 and i.id > ?2 order by i.id")
+    List<ItemInfoDto> findByOwnerIdAfter(Long ownerId, Long id, PageRequest pageRequest);
 }
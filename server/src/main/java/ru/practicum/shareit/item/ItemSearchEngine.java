@@ -0,0 +1,20 @@
+package ru.practicum.shareit.item;
+
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+public interface ItemSearchEngine {
+
+    List<Item> search(String text, PageRequest pageRequest);
+
+    //engines that keep their own index are notified about item changes
+    default void index(Item item) {
+    }
+
+    default void remove(Long itemId) {
+    }
+
+    default void removeAllOfOwner(Long ownerId) {
+    }
+}
@@ -0,0 +1,161 @@
+package ru.practicum.shareit.item;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+ * Инвертированный индекс по словам названия и описания вещей.
+ * Каждое слово запроса ищется как префикс слов вещи, результаты по словам пересекаются,
+ * id вещей возвращаются по возрастанию
+ */
+public class ItemSearchIndex {
+    private static final long[] EMPTY = new long[0];
+
+    private final NavigableMap<String, PostingList> postings = new TreeMap<>();
+    private final Map<Long, String[]> itemTokens = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void put(long itemId, String name, String description) {
+        String[] tokens = tokenize(name + " " + description);
+        lock.writeLock().lock();
+        try {
+            removeTokens(itemId);
+            for (String token : tokens) {
+                postings.computeIfAbsent(token, t -> new PostingList()).add(itemId);
+            }
+            itemTokens.put(itemId, tokens);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long itemId) {
+        lock.writeLock().lock();
+        try {
+            removeTokens(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            itemTokens.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return itemTokens.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long[] search(String text, long offset, int size) {
+        String[] words = tokenize(text);
+        if (words.length == 0) {
+            return EMPTY;
+        }
+        long[] result = null;
+        lock.readLock().lock();
+        try {
+            for (String word : words) {
+                long[] matches = findByPrefix(word);
+                result = (result == null) ? matches : intersect(result, matches);
+                if (result.length == 0) {
+                    return EMPTY;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (offset >= result.length) {
+            return EMPTY;
+        }
+        return Arrays.copyOfRange(result, (int) offset, (int) Math.min(result.length, offset + size));
+    }
+
+    static String[] tokenize(String text) {
+        return Arrays.stream(text.toLowerCase().split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .distinct()
+                .toArray(String[]::new);
+    }
+
+    private void removeTokens(long itemId) {
+        String[] tokens = itemTokens.remove(itemId);
+        if (tokens == null) {
+            return;
+        }
+        for (String token : tokens) {
+            PostingList list = postings.get(token);
+            list.remove(itemId);
+            if (list.isEmpty()) {
+                postings.remove(token);
+            }
+        }
+    }
+
+    private long[] findByPrefix(String prefix) {
+        Collection<PostingList> lists = postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+        if (lists.isEmpty()) {
+            return EMPTY;
+        }
+        if (lists.size() == 1) {
+            return lists.iterator().next().toArray();
+        }
+        int total = 0;
+        for (PostingList list : lists) {
+            total += list.size();
+        }
+        long[] merged = new long[total];
+        int position = 0;
+        for (PostingList list : lists) {
+            list.copyTo(merged, position);
+            position += list.size();
+        }
+        Arrays.sort(merged);
+        return distinct(merged);
+    }
+
+    private static long[] distinct(long[] sorted) {
+        int size = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[size++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, size);
+    }
+
+    private static long[] intersect(long[] first, long[] second) {
+        long[] result = new long[Math.min(first.length, second.length)];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                result[size++] = first[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+}
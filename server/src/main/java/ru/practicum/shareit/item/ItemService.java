@@ -1,15 +1,26 @@
 package ru.practicum.shareit.item;
 
 import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.AvailabilityWindowDto;
+import ru.practicum.shareit.custom.PageCursor;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Predicate;
 
 public interface ItemService {
 
     List<ItemInfoDto> getAll(Long userId, PageRequest pageRequest);
 
+    List<ItemInfoDto> getAllAfter(Long userId, PageCursor after, int size);
+
     ItemInfoDto getById(Long itemId, Long userId);
 
+    //null if notModified accepts the tag of the item: the view is then not built
+    ItemInfoDto getById(Long itemId, Long userId, Predicate<String> notModified);
+
+    List<AvailabilityWindowDto> getFreeWindows(Long itemId, Long userId, LocalDateTime from, LocalDateTime to);
+
     ItemInfoDto addItem(Long userId, ItemDto itemDto);
 
     ItemInfoDto updateItem(Long userId, Long itemId, ItemDto itemDto);
@@ -3,13 +3,19 @@ package ru.practicum.shareit.item;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.AvailabilityWindowDto;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.State;
 import ru.practicum.shareit.custom.CustomBadRequestException;
+import ru.practicum.shareit.custom.CustomPageRequest;
+import ru.practicum.shareit.custom.EntityTag;
 import ru.practicum.shareit.custom.ItemNotFoundException;
+import ru.practicum.shareit.custom.PageCursor;
 import ru.practicum.shareit.custom.UserNotFoundException;
 import ru.practicum.shareit.custom.ValidateOwnershipException;
 import ru.practicum.shareit.request.ItemRequest;
@@ -19,15 +25,17 @@ import ru.practicum.shareit.user.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Service
 @Component("DefaultItemService")
 @Slf4j
+@Transactional(readOnly = true)
 public class ItemServiceImpl implements ItemService {
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
@@ -36,6 +44,7 @@ public class ItemServiceImpl implements ItemService {
     private final ItemMapper itemMapper;
     private final CommentMapper commentMapper;
     private final ItemRequestRepository requestRepository;
+    private final ItemSearchEngine itemSearchEngine;
 
     @Autowired
     public ItemServiceImpl(ItemRepository itemRepository,
@@ -44,7 +53,8 @@ public class ItemServiceImpl implements ItemService {
                            BookingRepository bookingRepository,
                            ItemMapper itemMapper,
                            CommentMapper commentMapper,
-                           ItemRequestRepository requestRepository) {
+                           ItemRequestRepository requestRepository,
+                           ItemSearchEngine itemSearchEngine) {
         this.itemRepository = itemRepository;
         this.userRepository = userRepository;
         this.commentRepository = commentRepository;
@@ -52,19 +62,26 @@ public class ItemServiceImpl implements ItemService {
         this.itemMapper = itemMapper;
         this.commentMapper = commentMapper;
         this.requestRepository = requestRepository;
+        this.itemSearchEngine = itemSearchEngine;
     }
 
     public List<ItemInfoDto> getAll(Long userId, PageRequest pageRequest) {
         validateUser(userId);
-        List<ItemInfoDto> result =
-                itemRepository.findByOwnerId(userId, pageRequest).stream()
-                        .map(itemMapper::toItemInfoDto)
-                        .sorted(Comparator.comparingLong(ItemInfoDto::getId))
-                        .collect(Collectors.toList());
+        List<ItemInfoDto> items = itemRepository.findByOwnerId(userId, pageRequest.withSort(Sort.by("id")));
+        List<ItemInfoDto> result = itemMapper.withBookingsAndComments(items);
         log.info("Получен список из {} вещей: {}", result.size(), result);
         return result;
     }
 
+    public List<ItemInfoDto> getAllAfter(Long userId, PageCursor after, int size) {
+        validateUser(userId);
+        List<ItemInfoDto> items = itemRepository.findByOwnerIdAfter(userId, after == null ? 0L : after.getId(),
+                CustomPageRequest.of(0, size));
+        List<ItemInfoDto> result = itemMapper.withBookingsAndComments(items);
+        log.info("Получена страница из {} вещей после {}", result.size(), after);
+        return result;
+    }
+
     public ItemInfoDto getById(Long itemId, Long userId) {
         validateUserIdIsNull(userId);
         validateUser(userId);
@@ -79,6 +96,68 @@ public class ItemServiceImpl implements ItemService {
         return result;
     }
 
+    //the tag is read from what the view depends on, comments are read once for both
+    public ItemInfoDto getById(Long itemId, Long userId, Predicate<String> notModified) {
+        validateUserIdIsNull(userId);
+        validateUser(userId);
+
+        Item item = validateAndReturnItem(itemId);
+        User owner = item.getOwner();
+        boolean isOwner = owner.getId().equals(userId);
+        Collection<Comment> comments = commentRepository.findAllByItemIdIn(List.of(itemId));
+        Object bookings = "not owner";
+        if (isOwner) {
+            BookingRepository.ItemBookingsState state =
+                    bookingRepository.getItemBookingsState(itemId, LocalDateTime.now());
+            bookings = Arrays.asList(state.getTotal(), state.getIdSum(), state.getEnded());
+        }
+        List<List<Object>> commentParts = comments.stream()
+                .map(comment -> Arrays.<Object>asList(comment.getId(), comment.getText(),
+                        comment.getAuthor().getName(), comment.getCreated()))
+                .collect(Collectors.toList());
+        String etag = EntityTag.of(item.getId(), item.getName(), item.getDescription(), item.getAvailable(),
+                item.getRequestId(), owner.getId(), owner.getName(), owner.getEmail(), bookings, commentParts);
+        if (notModified.test(etag)) {
+            log.info("Вещь с id {} не изменилась", itemId);
+            return null;
+        }
+
+        ItemInfoDto result = isOwner ? itemMapper.toItemInfoDto(item, comments)
+                : itemMapper.toItemInfoDtoNotOwner(item, comments);
+        log.info("Получена вещь с id {}: {}", itemId, result);
+        return result;
+    }
+
+    //gaps between the periods held by bookings, swept in order of start; held periods may overlap
+    //each other only if they were stored before overlaps were rejected
+    public List<AvailabilityWindowDto> getFreeWindows(Long itemId, Long userId, LocalDateTime from,
+                                                      LocalDateTime to) {
+        validateUserIdIsNull(userId);
+        validateUser(userId);
+        validateAndReturnItem(itemId);
+        if (from == null || to == null || !from.isBefore(to)) {
+            log.warn("Ошибка: период с {} по {} пуст", from, to);
+            throw new CustomBadRequestException("Ошибка: дата конца периода должна быть после даты начала");
+        }
+
+        List<AvailabilityWindowDto> result = new ArrayList<>();
+        LocalDateTime freeFrom = from;
+        for (AvailabilityWindowDto held : bookingRepository.findHeldPeriods(itemId, State.HOLDING, from, to)) {
+            if (held.getStart().isAfter(freeFrom)) {
+                result.add(new AvailabilityWindowDto(freeFrom, held.getStart()));
+            }
+            if (held.getEnd().isAfter(freeFrom)) {
+                freeFrom = held.getEnd();
+            }
+        }
+        if (freeFrom.isBefore(to)) {
+            result.add(new AvailabilityWindowDto(freeFrom, to));
+        }
+        log.info("Свободные периоды вещи с id {} с {} по {}: {}", itemId, from, to, result);
+        return result;
+    }
+
+    @Transactional
     public ItemInfoDto addItem(Long userId, ItemDto itemDto) {
         validateUser(userId);
         Optional<ItemRequest> itemRequest = Optional.empty();
@@ -89,11 +168,13 @@ public class ItemServiceImpl implements ItemService {
 
         Item item = itemMapper.toItem(itemDto, userId, itemRequest);
         Item itemToAdd = itemRepository.save(item);
+        itemSearchEngine.index(itemToAdd);
         ItemInfoDto result = itemMapper.toItemInfoDto(itemToAdd);
         log.info("Пользователь {} добавил новую вещь: {}", userId, result);
         return result;
     }
 
+    @Transactional
     public ItemInfoDto updateItem(Long userId, Long itemId, ItemDto itemDto) {
         validateUserIdIsNull(userId);
         validateUser(userId);
@@ -114,15 +195,18 @@ public class ItemServiceImpl implements ItemService {
         }
 
         Item itemToUpdate = itemRepository.save(itemInDB);
+        itemSearchEngine.index(itemToUpdate);
         ItemInfoDto result = itemMapper.toItemInfoDto(itemToUpdate);
         log.info("Пользователь {} обновил вещь с id {}: {}", userId, itemId, result);
         return result;
     }
 
+    @Transactional
     public void deleteItem(Long itemId) {
         Item item = validateAndReturnItem(itemId);
         log.info("Вещь с id {} удалена", itemId);
         itemRepository.delete(item);
+        itemSearchEngine.remove(itemId);
     }
 
     public List<ItemInfoDto> searchItem(String text, PageRequest pageRequest) {
@@ -131,10 +215,7 @@ public class ItemServiceImpl implements ItemService {
         if (text.isBlank() || text.isEmpty()) {
             result = new ArrayList<>();
         } else {
-            result = itemRepository.findByNameContainsOrDescriptionContainsIgnoreCase(text, text, pageRequest).stream()
-                    .filter(Item::getAvailable)
-                    .map(itemMapper::toItemInfoDto)
-                    .collect(Collectors.toList());
+            result = itemMapper.toItemInfoDtoList(itemSearchEngine.search(text, pageRequest));
             log.info("Найденные вещи {}: ", result);
         }
         return result;
@@ -142,6 +223,7 @@ public class ItemServiceImpl implements ItemService {
 
     /* COMMENTS METHODS */
 
+    @Transactional
     public CommentDto addComment(CommentDto commentDto, Long userId, Long itemId) {
         validateAndReturnItem(itemId);
         validateUser(userId);
@@ -12,8 +12,11 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.custom.CustomPageRequest;
+import ru.practicum.shareit.custom.PageCursor;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 import java.util.List;
@@ -36,16 +39,30 @@ public class ItemRequestController {
                                                    @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
                                                    Integer from,
                                                    @Positive @RequestParam(name = "size", defaultValue = "10")
-                                                   Integer size
+                                                   Integer size,
+                                                   @RequestParam(name = "cursor", required = false)
+                                                   String cursor,
+                                                   HttpServletResponse response
     ) {
+        if (cursor != null) {
+            List<ItemRequestInfoDto> result = requestService.getAllByUserIdAfter(userId, PageCursor.decode(cursor),
+                    size);
+            PageCursor.writeNext(response, result, size, r -> PageCursor.of(r.getCreated(), r.getId()));
+            return result;
+        }
         PageRequest pageRequest = CustomPageRequest.of(from, size);
         return requestService.getAllByUserId(userId, pageRequest);
     }
 
     @GetMapping("/{requestId}")
     public ItemRequestInfoDto getByRequestId(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                             @PathVariable Long requestId) {
-        return requestService.getByRequestId(userId, requestId);
+                                             @PathVariable Long requestId,
+                                             WebRequest request) {
+        ItemRequestInfoDto result = requestService.getByRequestId(userId, requestId);
+        if (request.checkNotModified(ItemRequestMapper.toEntityTag(result))) {
+            return null;
+        }
+        return result;
     }
 
     @GetMapping("/all")
@@ -53,7 +70,16 @@ public class ItemRequestController {
                                                            @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
                                                            Integer from,
                                                            @Positive @RequestParam(name = "size", defaultValue = "10")
-                                                           Integer size) {
+                                                           Integer size,
+                                                           @RequestParam(name = "cursor", required = false)
+                                                           String cursor,
+                                                           HttpServletResponse response) {
+        if (cursor != null) {
+            List<ItemRequestInfoDto> result = requestService.getAllRequestsNotOwnerAfter(userId,
+                    PageCursor.decode(cursor), size);
+            PageCursor.writeNext(response, result, size, r -> PageCursor.of(r.getCreated(), r.getId()));
+            return result;
+        }
         PageRequest pageRequest = CustomPageRequest.of(from, size);
         return requestService.getAllRequestsNotOwner(userId, pageRequest);
     }
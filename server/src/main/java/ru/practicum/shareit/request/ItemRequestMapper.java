@@ -2,11 +2,14 @@ package ru.practicum.shareit.request;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import ru.practicum.shareit.custom.EntityTag;
 import ru.practicum.shareit.item.ItemDto;
 import ru.practicum.shareit.user.User;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Component
 @Slf4j
@@ -23,6 +26,14 @@ public class ItemRequestMapper {
         return result;
     }
 
+    public static String toEntityTag(ItemRequestInfoDto itemRequest) {
+        List<List<Object>> items = itemRequest.getItems().stream()
+                .map(item -> Arrays.<Object>asList(item.getId(), item.getName(), item.getDescription(),
+                        item.getAvailable()))
+                .collect(Collectors.toList());
+        return EntityTag.of(itemRequest.getId(), itemRequest.getDescription(), itemRequest.getCreated(), items);
+    }
+
     public static ItemRequestDto toItemRequestDto(ItemRequest itemRequest) {
         ItemRequestDto result = ItemRequestDto.builder()
                 .description(itemRequest.getDescription())
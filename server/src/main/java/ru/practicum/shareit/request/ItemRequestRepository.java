@@ -4,13 +4,25 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
 
-    @Query("select r from ItemRequest as r where r.user.id = ?1 order by r.created desc")
+    //order comes from the Sort of the page request
+    @Query("select r from ItemRequest as r where r.user.id = ?1")
     List<ItemRequest> findAllByUserId(Long userId, PageRequest pageRequest);
 
-    @Query("select r from ItemRequest as r where r.user.id <> ?1 order by r.created desc")
+    @Query("select r from ItemRequest as r where r.user.id <> ?1")
     List<ItemRequest> findAllOthersByUserId(Long userId, PageRequest pageRequest);
+
+    //keyset: the page after (created, id) in "created desc, id desc" order
+    @Query("select r from ItemRequest as r where r.user.id = ?1 and " +
+            "(r.created < ?2 or (r.created = ?2 and r.id < ?3)) order by r.created desc, r.id desc")
+    List<ItemRequest> findAllByUserIdAfter(Long userId, LocalDateTime created, Long id, PageRequest pageRequest);
+
+    @Query("select r from ItemRequest as r where r.user.id <> ?1 and " +
+            "(r.created < ?2 or (r.created = ?2 and r.id < ?3)) order by r.created desc, r.id desc")
+    List<ItemRequest> findAllOthersByUserIdAfter(Long userId, LocalDateTime created, Long id,
+                                                 PageRequest pageRequest);
 }
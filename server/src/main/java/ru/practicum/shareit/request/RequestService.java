@@ -1,6 +1,7 @@
 package ru.practicum.shareit.request;
 
 import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.custom.PageCursor;
 
 import java.util.List;
 
@@ -13,4 +14,8 @@ public interface RequestService {
     ItemRequestInfoDto addItemRequest(Long userId, ItemRequestDto itemRequestDto);
 
     List<ItemRequestInfoDto> getAllRequestsNotOwner(Long userId, PageRequest pageRequest);
+
+    List<ItemRequestInfoDto> getAllByUserIdAfter(Long userId, PageCursor after, int size);
+
+    List<ItemRequestInfoDto> getAllRequestsNotOwnerAfter(Long userId, PageCursor after, int size);
 }
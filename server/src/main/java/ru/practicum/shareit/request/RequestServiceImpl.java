@@ -3,8 +3,12 @@ package ru.practicum.shareit.request;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.custom.CustomPageRequest;
+import ru.practicum.shareit.custom.PageCursor;
 import ru.practicum.shareit.custom.RequestNotFoundException;
 import ru.practicum.shareit.custom.UserNotFoundException;
 import ru.practicum.shareit.item.Item;
@@ -16,12 +20,14 @@ import ru.practicum.shareit.user.UserRepository;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 @Component("DefaultRequestService")
 @Slf4j
+@Transactional(readOnly = true)
 public class RequestServiceImpl implements RequestService {
 
     private final ItemRequestRepository itemRequestRepository;
@@ -58,19 +64,11 @@ public class RequestServiceImpl implements RequestService {
     public List<ItemRequestInfoDto> getAllByUserId(Long userId, PageRequest pageRequest) {
         validateAndReturnUser(userId);
 
-        List<ItemRequest> itemRequests = itemRequestRepository.findAllByUserId(userId, pageRequest);
-
-        return itemRequests.stream()
-                .map(r -> ItemRequestMapper.toItemRequestInfoDto(
-                        r,
-                        itemRepository.findAllByRequestId(r.getId()).stream()
-                                .map(itemMapper::toItemDto)
-                                .collect(Collectors.toList())
-                ))
-                .collect(Collectors.toList());
-        // return null;
+        List<ItemRequest> itemRequests = itemRequestRepository.findAllByUserId(userId, withNewestFirst(pageRequest));
+        return toItemRequestInfoDtoList(itemRequests);
     }
 
+    @Transactional
     public ItemRequestInfoDto addItemRequest(Long userId, ItemRequestDto itemRequestDto) {
         validateUserId(userId);
         User user = validateAndReturnUser(userId);
@@ -83,12 +81,46 @@ public class RequestServiceImpl implements RequestService {
     public List<ItemRequestInfoDto> getAllRequestsNotOwner(Long userId, PageRequest pageRequest) {
         validateUserId(userId);
         validateAndReturnUser(userId);
-        List<ItemRequest> itemRequests = itemRequestRepository.findAllOthersByUserId(userId, pageRequest);
+        List<ItemRequest> itemRequests = itemRequestRepository.findAllOthersByUserId(userId, withNewestFirst(pageRequest));
+        return toItemRequestInfoDtoList(itemRequests);
+    }
+
+    public List<ItemRequestInfoDto> getAllByUserIdAfter(Long userId, PageCursor after, int size) {
+        validateAndReturnUser(userId);
+        PageCursor cursor = after == null ? PageCursor.latest() : after;
+        List<ItemRequest> itemRequests = itemRequestRepository.findAllByUserIdAfter(userId, cursor.getKey(),
+                cursor.getId(), CustomPageRequest.of(0, size));
+        return toItemRequestInfoDtoList(itemRequests);
+    }
+
+    public List<ItemRequestInfoDto> getAllRequestsNotOwnerAfter(Long userId, PageCursor after, int size) {
+        validateUserId(userId);
+        validateAndReturnUser(userId);
+        PageCursor cursor = after == null ? PageCursor.latest() : after;
+        List<ItemRequest> itemRequests = itemRequestRepository.findAllOthersByUserIdAfter(userId, cursor.getKey(),
+                cursor.getId(), CustomPageRequest.of(0, size));
+        return toItemRequestInfoDtoList(itemRequests);
+    }
+
+    private static PageRequest withNewestFirst(PageRequest pageRequest) {
+        return pageRequest.withSort(Sort.by(Sort.Direction.DESC, "created", "id"));
+    }
+
+    private List<ItemRequestInfoDto> toItemRequestInfoDtoList(List<ItemRequest> itemRequests) {
+        if (itemRequests.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> requestIds = itemRequests.stream()
+                .map(ItemRequest::getId)
+                .collect(Collectors.toList());
+
+        //items of the whole page are loaded with a single query
+        Map<Long, List<ItemDto>> items = itemRepository.findAllByRequestIdIn(requestIds).stream()
+                .collect(Collectors.groupingBy(Item::getRequestId,
+                        Collectors.mapping(itemMapper::toItemDto, Collectors.toList())));
+
         return itemRequests.stream()
-                .map(r -> ItemRequestMapper.toItemRequestInfoDto(
-                        r, itemRepository.findAllByRequestId(r.getId()).stream()
-                                .map(itemMapper::toItemDto)
-                                .collect(Collectors.toList())))
+                .map(r -> ItemRequestMapper.toItemRequestInfoDto(r, items.getOrDefault(r.getId(), new ArrayList<>())))
                 .collect(Collectors.toList());
     }
 
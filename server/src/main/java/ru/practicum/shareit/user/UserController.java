@@ -10,6 +10,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -31,8 +32,12 @@ public class UserController {
     }
 
     @GetMapping("/{userId}")
-    public UserDto getById(@PathVariable Long userId) {
-        return userService.getById(userId);
+    public UserDto getById(@PathVariable Long userId, WebRequest request) {
+        UserDto result = userService.getById(userId);
+        if (request.checkNotModified(UserMapper.toEntityTag(result))) {
+            return null;
+        }
+        return result;
     }
 
     @PostMapping
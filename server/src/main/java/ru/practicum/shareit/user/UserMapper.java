@@ -2,6 +2,7 @@ package ru.practicum.shareit.user;
 
 import lombok.NoArgsConstructor;
 import org.springframework.stereotype.Component;
+import ru.practicum.shareit.custom.EntityTag;
 
 @Component
 @NoArgsConstructor
@@ -15,6 +16,10 @@ public class UserMapper {
                 .build();
     }
 
+    public static String toEntityTag(UserDto userDto) {
+        return EntityTag.of(userDto.getId(), userDto.getName(), userDto.getEmail());
+    }
+
     public static User toUser(UserDto userDto) {
         return User.builder()
                 .id(userDto.getId())
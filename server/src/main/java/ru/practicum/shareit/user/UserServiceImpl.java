@@ -4,7 +4,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.config.EntityCacheEvictor;
 import ru.practicum.shareit.custom.UserNotFoundException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemSearchEngine;
 
 import java.util.List;
 import java.util.Optional;
@@ -13,12 +17,18 @@ import java.util.stream.Collectors;
 @Service
 @Component("DefaultUserService")
 @Slf4j
+@Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final EntityCacheEvictor entityCacheEvictor;
+    private final ItemSearchEngine itemSearchEngine;
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository) {
+    public UserServiceImpl(UserRepository userRepository, EntityCacheEvictor entityCacheEvictor,
+                           ItemSearchEngine itemSearchEngine) {
         this.userRepository = userRepository;
+        this.entityCacheEvictor = entityCacheEvictor;
+        this.itemSearchEngine = itemSearchEngine;
     }
 
     public List<UserDto> getAll() {
@@ -36,6 +46,7 @@ public class UserServiceImpl implements UserService {
         return result;
     }
 
+    @Transactional
     public UserDto addUser(UserDto userDto) {
         User user = UserMapper.toUser(userDto);
         User userToAdd = userRepository.save(user);
@@ -44,6 +55,7 @@ public class UserServiceImpl implements UserService {
         return result;
     }
 
+    @Transactional
     public UserDto updateUser(Long userId, UserDto userDto) {
         User userInDB = validateAndReturnUser(userId);
 
@@ -59,11 +71,15 @@ public class UserServiceImpl implements UserService {
         return result;
     }
 
+    @Transactional
     public void deleteUser(Long userId) {
         User user = validateAndReturnUser(userId);
         log.info("Пользователь с id {} удалён", userId);
         //userRepository.delete(user);
+        itemSearchEngine.removeAllOfOwner(user.getId());
         userRepository.deleteById(user.getId());
+        //вещи пользователя удаляет каскад в базе, мимо кэша
+        entityCacheEvictor.evictAll(Item.class);
     }
 
     private User validateAndReturnUser(Long userId) {
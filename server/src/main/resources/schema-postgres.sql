@@ -0,0 +1,9 @@
+CREATE INDEX IF NOT EXISTS idx_items_search ON items
+    USING GIN (to_tsvector('simple', name || ' ' || description));
+
+--bookings of a database created before bookings_seq were numbered by the identity column:
+--the sequence takes the column over and starts after them
+ALTER TABLE bookings ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE bookings ALTER COLUMN id SET DEFAULT nextval('bookings_seq');
+SELECT setval('bookings_seq', (SELECT MAX(id) FROM bookings))
+    WHERE (SELECT MAX(id) FROM bookings) > (SELECT last_value FROM bookings_seq);
@@ -30,8 +30,12 @@ CREATE TABLE IF NOT EXISTS items (
     FOREIGN KEY(request_id) REFERENCES requests(id)
     );
 
+--ids of bookings, handed out to the server in blocks of allocationSize = 50 of Booking.id.
+--A row inserted without an id takes a value of its own: the server block of a value v is (v - 50, v]
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS bookings (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    id BIGINT DEFAULT nextval('bookings_seq') NOT NULL,
     start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     item_id BIGINT NOT NULL,
@@ -58,4 +62,20 @@ CREATE TABLE IF NOT EXISTS comments (
     FOREIGN KEY(item_id) REFERENCES items(id),
     CONSTRAINT fk_author_comment
     FOREIGN KEY(author_id) REFERENCES users(id) ON DELETE CASCADE
-    );
\ No newline at end of file
+    );
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date DESC);
+
+--last and next booking of an item are the first row of one of these per item.
+--the next one takes the latest end and the smallest id, so it can not be read from the ascending one backwards
+CREATE INDEX IF NOT EXISTS idx_bookings_item_end_asc ON bookings (item_id, end_date, id);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_item_end_desc ON bookings (item_id, end_date DESC, id);
+
+CREATE INDEX IF NOT EXISTS idx_items_owner ON items (owner_id);
+
+CREATE INDEX IF NOT EXISTS idx_items_request ON items (request_id);
+
+CREATE INDEX IF NOT EXISTS idx_comments_item ON comments (item_id);
+
+CREATE INDEX IF NOT EXISTS idx_requests_requestor_created ON requests (requestor_id, created DESC);
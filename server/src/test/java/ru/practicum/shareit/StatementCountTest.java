@@ -0,0 +1,234 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultMatcher;
+import ru.practicum.shareit.booking.BookingDto;
+import ru.practicum.shareit.booking.BookingInfoDto;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.item.CommentDto;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemInfoDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.request.ItemRequestDto;
+import ru.practicum.shareit.request.RequestService;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserService;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//every endpoint is measured with an empty second-level cache, so the counts are the worst case
+@SpringBootTest
+@AutoConfigureMockMvc
+public class StatementCountTest {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper mapper;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    @Qualifier("DefaultUserService")
+    private UserService userService;
+    @Autowired
+    @Qualifier("DefaultItemService")
+    private ItemService itemService;
+    @Autowired
+    @Qualifier("DefaultBookingService")
+    private BookingService bookingService;
+    @Autowired
+    @Qualifier("DefaultRequestService")
+    private RequestService requestService;
+
+    private Statistics statistics;
+    private UserDto owner;
+    private UserDto booker;
+    private ItemInfoDto item;
+    private BookingInfoDto pastBooking;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        owner = userService.addUser(createTestUserDto());
+        booker = userService.addUser(createTestUserDto());
+        item = itemService.addItem(owner.getId(), ItemDto.builder()
+                .name("CountItem").description("CountItemDescription").available(true).build());
+        pastBooking = bookingService.addBooking(booker.getId(), BookingDto.builder().itemId(item.getId())
+                .start(LocalDateTime.now().minusDays(2)).end(LocalDateTime.now().minusDays(1)).build());
+        bookingService.updateBooking(owner.getId(), pastBooking.getId(), true);
+        itemService.addComment(CommentDto.builder().text("CountComment").build(), booker.getId(), item.getId());
+        requestService.addItemRequest(booker.getId(), ItemRequestDto.builder().description("CountRequest").build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        //booker first: the cascade removes their bookings and comments, which would otherwise hold the item
+        userService.deleteUser(booker.getId());
+        userService.deleteUser(owner.getId());
+    }
+
+    @Test
+    void testAddBooking() throws Exception {
+        BookingDto bookingDto = BookingDto.builder().itemId(item.getId())
+                .start(LocalDateTime.now().plusDays(1)).end(LocalDateTime.now().plusDays(2)).build();
+
+        //item locked, its owner, booker, overlap check, insert
+        assertStatementsWithNewIds(5, post("/bookings").header(USER_HEADER, booker.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(bookingDto)));
+    }
+
+    @Test
+    void testAddBookingsQueryCountDoesNotDependOnBatchSize() throws Exception {
+        ItemInfoDto secondItem = itemService.addItem(owner.getId(), ItemDto.builder()
+                .name("SecondCountItem").description("SecondCountItemDescription").available(true).build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<BookingDto> bookingDtos = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            bookingDtos.add(BookingDto.builder().itemId(i % 2 == 0 ? item.getId() : secondItem.getId())
+                    .start(start.plusDays(i)).end(start.plusDays(i + 1)).build());
+        }
+
+        //booker, items locked, their owner, overlap check, one jdbc batch of inserts
+        assertStatementsWithNewIds(5, post("/bookings/batch").header(USER_HEADER, booker.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(bookingDtos)));
+    }
+
+    @Test
+    void testUpdateBooking() throws Exception {
+        BookingInfoDto booking = bookingService.addBooking(booker.getId(), BookingDto.builder().itemId(item.getId())
+                .start(LocalDateTime.now().plusDays(1)).end(LocalDateTime.now().plusDays(2)).build());
+
+        //booking with item, owner and booker joined, conditional status update
+        assertStatements(2, patch("/bookings/{bookingId}", booking.getId())
+                .header(USER_HEADER, owner.getId())
+                .param("approved", "true"));
+    }
+
+    @Test
+    void testGetBooking() throws Exception {
+        //booking with item, owner and booker joined
+        assertStatements(1, get("/bookings/{bookingId}", pastBooking.getId())
+                .header(USER_HEADER, booker.getId()));
+    }
+
+    @Test
+    void testGetBookingsByBooker() throws Exception {
+        //booker, page with item and booker joined
+        assertStatements(2, get("/bookings").header(USER_HEADER, booker.getId()));
+    }
+
+    @Test
+    void testGetBookingsByOwner() throws Exception {
+        //owner has items, page with item and booker joined
+        assertStatements(2, get("/bookings/owner").header(USER_HEADER, owner.getId()));
+    }
+
+    @Test
+    void testGetItem() throws Exception {
+        //etag: user, item, comments, bookings state; view: last booking, next booking
+        assertStatements(6, get("/items/{itemId}", item.getId()).header(USER_HEADER, owner.getId()));
+    }
+
+    @Test
+    void testGetItemNotModified() throws Exception {
+        String etag = mockMvc.perform(get("/items/{itemId}", item.getId()).header(USER_HEADER, owner.getId()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //user, item, comments, bookings state: the item view is not built
+        assertStatements(4, get("/items/{itemId}", item.getId()).header(USER_HEADER, owner.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, etag), status().isNotModified());
+    }
+
+    @Test
+    void testGetItems() throws Exception {
+        //user, page with owner joined, last bookings, next bookings, comments
+        assertStatements(5, get("/items").header(USER_HEADER, owner.getId()));
+    }
+
+    @Test
+    void testAddItem() throws Exception {
+        ItemDto itemDto = ItemDto.builder().name("NewItem").description("NewItemDescription").available(true).build();
+
+        //owner, insert, last booking, next booking: a new item has no comments to load
+        assertStatements(4, post("/items").header(USER_HEADER, owner.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(itemDto)));
+    }
+
+    @Test
+    void testAddComment() throws Exception {
+        //item, author (validated and reused), bookings, insert
+        assertStatements(4, post("/items/{itemId}/comment", item.getId()).header(USER_HEADER, booker.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(CommentDto.builder().text("NewComment").build())));
+    }
+
+    @Test
+    void testGetUser() throws Exception {
+        assertStatements(1, get("/users/{userId}", owner.getId()));
+    }
+
+    @Test
+    void testGetRequests() throws Exception {
+        //user, page, items of the page
+        assertStatements(3, get("/requests").header(USER_HEADER, booker.getId()));
+    }
+
+    private void assertStatements(long expected, RequestBuilder request) throws Exception {
+        assertStatements(expected, request, status().isOk());
+    }
+
+    private void assertStatements(long expected, RequestBuilder request, ResultMatcher status) throws Exception {
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+
+        mockMvc.perform(request).andExpect(status);
+
+        assertEquals(expected, statistics.getPrepareStatementCount());
+    }
+
+    //booking ids come from bookings_seq in blocks of 50: the insert that uses up a block also reads the next one
+    private void assertStatementsWithNewIds(long expected, RequestBuilder request) throws Exception {
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+
+        mockMvc.perform(request).andExpect(status().isOk());
+
+        long count = statistics.getPrepareStatementCount();
+        assertTrue(count == expected || count == expected + 1, "statements: " + count);
+    }
+
+    private UserDto createTestUserDto() {
+        String name = "CountUser" + UUID.randomUUID();
+        return UserDto.builder().name(name).email(name + "@test.com").build();
+    }
+}
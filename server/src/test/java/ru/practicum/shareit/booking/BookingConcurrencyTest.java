@@ -0,0 +1,162 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.custom.BookingOverlapException;
+import ru.practicum.shareit.custom.CustomBadRequestException;
+import ru.practicum.shareit.custom.CustomPageRequest;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemInfoDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+//services are called from several threads at once, every call commits its own transaction
+@SpringBootTest
+public class BookingConcurrencyTest {
+    private static final int THREADS = 8;
+
+    @Autowired
+    @Qualifier("DefaultUserService")
+    private UserService userService;
+    @Autowired
+    @Qualifier("DefaultItemService")
+    private ItemService itemService;
+    @Autowired
+    @Qualifier("DefaultBookingService")
+    private BookingService bookingService;
+
+    private UserDto owner;
+    private List<UserDto> bookers;
+    private ItemInfoDto item;
+
+    @BeforeEach
+    void setUp() {
+        owner = userService.addUser(createTestUserDto());
+        item = itemService.addItem(owner.getId(), ItemDto.builder()
+                .name("ConcurrentItem").description("ConcurrentItemDescription").available(true).build());
+        bookers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            bookers.add(userService.addUser(createTestUserDto()));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        //bookers first: the cascade removes their bookings, which would otherwise hold the item
+        bookers.forEach(booker -> userService.deleteUser(booker.getId()));
+        userService.deleteUser(owner.getId());
+    }
+
+    @Test
+    void testOnlyOneOfOverlappingBookingsIsSaved() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Callable<BookingInfoDto>> tasks = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            //every period overlaps every other one
+            BookingDto bookingDto = BookingDto.builder().itemId(item.getId())
+                    .start(start.plusHours(i)).end(start.plusDays(1).plusHours(i)).build();
+            Long bookerId = bookers.get(i).getId();
+            tasks.add(() -> bookingService.addBooking(bookerId, bookingDto));
+        }
+
+        List<Throwable> failures = runAtOnce(tasks);
+
+        assertEquals(THREADS - 1, failures.size());
+        failures.forEach(failure -> assertInstanceOf(BookingOverlapException.class, failure));
+        assertEquals(1, bookingService.getAllByOwnerId(owner.getId(), "ALL",
+                CustomPageRequest.of(0, THREADS)).size());
+    }
+
+    @Test
+    void testAdjacentBookingsAreAllSaved() throws Exception {
+        //whole seconds, as in requests: a stored end rounded to the column precision would pass the next start
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        List<Callable<BookingInfoDto>> tasks = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            //one period ends when the next one starts
+            BookingDto bookingDto = BookingDto.builder().itemId(item.getId())
+                    .start(start.plusHours(i)).end(start.plusHours(i + 1)).build();
+            Long bookerId = bookers.get(i).getId();
+            tasks.add(() -> bookingService.addBooking(bookerId, bookingDto));
+        }
+
+        assertEquals(List.of(), runAtOnce(tasks));
+    }
+
+    @Test
+    void testOnlyOneDecisionOnBookingWins() throws Exception {
+        BookingInfoDto booking = bookingService.addBooking(bookers.get(0).getId(), BookingDto.builder()
+                .itemId(item.getId()).start(LocalDateTime.now().plusDays(1)).end(LocalDateTime.now().plusDays(2))
+                .build());
+        Queue<State> decisions = new ConcurrentLinkedQueue<>();
+        List<Callable<BookingInfoDto>> tasks = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            //half of the calls approve, half reject
+            boolean approved = i % 2 == 0;
+            tasks.add(() -> {
+                BookingInfoDto decided = bookingService.updateBooking(owner.getId(), booking.getId(), approved);
+                decisions.add(decided.getStatus());
+                return decided;
+            });
+        }
+
+        List<Throwable> failures = runAtOnce(tasks);
+
+        assertEquals(THREADS - 1, failures.size());
+        failures.forEach(failure -> assertInstanceOf(CustomBadRequestException.class, failure));
+        assertEquals(List.copyOf(decisions),
+                List.of(bookingService.getById(booking.getId(), owner.getId()).getStatus()));
+    }
+
+    //returns the causes of the tasks that failed
+    private <T> List<Throwable> runAtOnce(List<Callable<T>> tasks) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        for (Callable<T> task : tasks) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return task.call();
+            }));
+        }
+        start.countDown();
+
+        List<Throwable> result = new ArrayList<>();
+        for (Future<T> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                result.add(e.getCause());
+            }
+        }
+        executor.shutdown();
+        return result;
+    }
+
+    private UserDto createTestUserDto() {
+        String name = "ConcurrentUser" + UUID.randomUUID();
+        return UserDto.builder().name(name).email(name + "@test.com").build();
+    }
+}
@@ -11,24 +11,31 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
+import ru.practicum.shareit.custom.PageCursor;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserMapper;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -59,7 +66,9 @@ public class BookingControllerTest {
         testOwner = new User(2L, "OwnerName", "ownerEmail@test.com");
         testItem = new Item(1L, "TestItem", "TestDescription", true, testOwner, 1L,
                 new ArrayList<>());
-        testBooking = new BookingInfoDto(1L, START, END, testItem, testBooker, State.APPROVED);
+        testBooking = new BookingInfoDto(1L, START, END,
+                new BookingInfoDto.BookingItemDto(testItem.getId(), testItem.getName()),
+                UserMapper.toUserDto(testBooker), State.APPROVED);
         testBookingDto = new BookingDto(1L, START, END, testItem.getId(), testBooker.getId(), State.APPROVED);
     }
 
@@ -87,6 +96,26 @@ public class BookingControllerTest {
         verify(bookingService, times(1)).addBooking(anyLong(), any(BookingDto.class));
     }
 
+    @Test
+    void testAddBookings() throws Exception {
+        when(bookingService.addBookings(anyLong(), anyList()))
+                .thenReturn(List.of(testBooking));
+
+        mockMvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", 1L)
+                        .content(mapper.writeValueAsString(List.of(testBookingDto)))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(testBooking.getId()))
+                .andExpect(jsonPath("$[0].item.id").value(testBooking.getItem().getId()))
+                .andExpect(jsonPath("$[0].status").value(testBooking.getStatus().toString()));
+
+        verify(bookingService, times(1)).addBookings(anyLong(), anyList());
+    }
+
     @Test
     void testUpdateBooking() throws Exception {
         when(bookingService.updateBooking(anyLong(), anyLong(), anyBoolean())).thenReturn(testBooking);
@@ -134,6 +163,48 @@ public class BookingControllerTest {
         verify(bookingService, times(1)).getAllByUserId(anyLong(), anyString(), any());
     }
 
+    @Test
+    void testGetAllBookingsByUserIdWithCursor() throws Exception {
+        when(bookingService.getAllByUserIdAfter(anyLong(), anyString(), any(), anyInt()))
+                .thenReturn(Arrays.asList(testBooking));
+        PageCursor cursor = PageCursor.of(START.plusDays(1), 5L);
+
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("size", "1")
+                        .param("cursor", cursor.encode())
+                        .accept(MediaType.APPLICATION_JSON))
+
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(testBooking.getId()))
+                .andExpect(header().string(PageCursor.HEADER,
+                        PageCursor.of(testBooking.getStart(), testBooking.getId()).encode()));
+
+        verify(bookingService, times(1)).getAllByUserIdAfter(1L, "all", cursor, 1);
+    }
+
+    @Test
+    void testGetAllBookingsByUserIdWithBadCursor() throws Exception {
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("cursor", "not a cursor")
+                        .accept(MediaType.APPLICATION_JSON))
+
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetAllBookingsByUserIdWithItemCursor() throws Exception {
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("cursor", PageCursor.of(5L).encode())
+                        .accept(MediaType.APPLICATION_JSON))
+
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(bookingService);
+    }
+
     @Test
     void testGetAllBookingsByOwnerId() throws Exception {
         when(bookingService.getAllByOwnerId(anyLong(), anyString(), any())).thenReturn(Arrays.asList(testBooking));
@@ -5,8 +5,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.json.JsonTest;
 import org.springframework.boot.test.json.JacksonTester;
 import org.springframework.boot.test.json.JsonContent;
-import ru.practicum.shareit.item.Item;
-import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserDto;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
@@ -21,8 +20,8 @@ public class BookingInfoDtoJsonTest {
 
     @Test
     void testBookingInfoDto() throws IOException {
-        Item item = new Item();
-        User booker = new User();
+        BookingInfoDto.BookingItemDto item = new BookingInfoDto.BookingItemDto();
+        UserDto booker = new UserDto();
         BookingInfoDto bookingInfoDto = new BookingInfoDto(1L, LocalDateTime.now(),
                 LocalDateTime.now().plusMonths(1), item, booker, State.APPROVED);
 
@@ -4,6 +4,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.user.User;
@@ -15,10 +16,9 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 
 @SpringBootTest
+@Transactional
 public class BookingMapperTest {
 
-    @Autowired
-    private BookingMapper bookingMapper;
     @Autowired
     private UserRepository userRepository;
     @Autowired
@@ -48,7 +48,7 @@ public class BookingMapperTest {
 
     @Test
     void testToBooking() {
-        Booking result = bookingMapper.toBooking(testBookingDto, testBooker.getId());
+        Booking result = BookingMapper.toBooking(testBookingDto, testItem, testBooker);
 
         assertEquals(testBooking.getId(), result.getId());
         assertEquals(testBooking.getStart(), result.getStart());
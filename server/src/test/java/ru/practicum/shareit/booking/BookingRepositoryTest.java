@@ -5,32 +5,37 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.config.EntityCacheConfig;
 import ru.practicum.shareit.custom.CustomPageRequest;
+import ru.practicum.shareit.custom.PageCursor;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserDto;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
+@Import(EntityCacheConfig.class)
 public class BookingRepositoryTest {
     @Autowired
     private TestEntityManager em;
     @Autowired
     private BookingRepository bookingRepository;
 
-    private static final LocalDateTime START = LocalDateTime.of(2023,
-            1, 24, 8, 30, 10);
-    private static final LocalDateTime END = LocalDateTime.of(2023,
-            5, 24, 8, 30, 10);
-    private static final LocalDateTime TEST_TIME = LocalDateTime.of(2023,
-            3, 24, 8, 30, 10);
+    private static final LocalDateTime START = LocalDateTime.now().plusMonths(1);
+    private static final LocalDateTime END = LocalDateTime.now().plusMonths(5);
+    private static final LocalDateTime TEST_TIME = LocalDateTime.now().plusMonths(3);
     private static final CustomPageRequest REQ = CustomPageRequest.of(0, 10);
 
     private User testUser;
@@ -50,24 +55,33 @@ public class BookingRepositoryTest {
 
     @Test
     void testFindAllByOwnerId() {
-        Collection<Booking> result =
+        List<BookingInfoDto> result =
                 bookingRepository.findAllByOwnerId(testOwner.getId(), REQ);
         assertNotNull(result);
         assertEquals(2, result.size());
     }
 
+    @Test
+    void testFindAllByOwnerIdReadsItemAndBooker() {
+        List<BookingInfoDto> result = bookingRepository.findAllByOwnerIdAndStatus(testOwner.getId(), State.APPROVED,
+                REQ);
+        assertEquals(1, result.size());
+        assertEquals(lastBooking.getId(), result.get(0).getId());
+        assertEquals(new BookingInfoDto.BookingItemDto(testItem.getId(), testItem.getName()), result.get(0).getItem());
+        assertEquals(new UserDto(testUser.getId(), testUser.getName(), testUser.getEmail()), result.get(0).getBooker());
+    }
+
     @Test
     void testFindAllByOwnerIdAndStatus() {
-        Collection<Booking> result = bookingRepository.findAllByOwnerIdAndStatus(testOwner.getId(), State.WAITING, REQ);
-        List<Booking> resultList = new ArrayList<>(result);
-        assertNotNull(result);
+        List<BookingInfoDto> result = bookingRepository.findAllByOwnerIdAndStatus(testOwner.getId(), State.WAITING, REQ);
+                assertNotNull(result);
         assertEquals(1, result.size());
-        assertEquals(State.WAITING, resultList.get(0).getStatus());
+        assertEquals(State.WAITING, result.get(0).getStatus());
     }
 
     @Test
     void testGetFutureBookingsByOwnerId() {
-        Collection<Booking> result = bookingRepository.getFutureBookingsByOwnerId(testOwner.getId(),
+        List<BookingInfoDto> result = bookingRepository.getFutureBookingsByOwnerId(testOwner.getId(),
                 LocalDateTime.now(), REQ);
         assertNotNull(result);
         assertEquals(2, result.size());
@@ -75,7 +89,7 @@ public class BookingRepositoryTest {
 
     @Test
     void testGetPastBookingsByOwnerId() {
-        Collection<Booking> result = bookingRepository.getPastBookingsByOwnerId(testOwner.getId(),
+        List<BookingInfoDto> result = bookingRepository.getPastBookingsByOwnerId(testOwner.getId(),
                 LocalDateTime.now(), REQ);
         assertTrue(result.isEmpty());
         assertEquals(0, result.size());
@@ -83,7 +97,7 @@ public class BookingRepositoryTest {
 
     @Test
     void testGetCurrentBookingsByOwnerId() {
-        Collection<Booking> result = bookingRepository.getCurrentBookingsByOwnerId(testOwner.getId(),
+        List<BookingInfoDto> result = bookingRepository.getCurrentBookingsByOwnerId(testOwner.getId(),
                 LocalDateTime.now(), REQ);
         assertTrue(result.isEmpty());
         assertEquals(0, result.size());
@@ -91,11 +105,132 @@ public class BookingRepositoryTest {
 
     @Test
     void testGetAllByBookerId() {
-        Collection<Booking> result = bookingRepository.getAllByBookerId(testUser.getId(), TEST_TIME, REQ);
+        List<BookingInfoDto> result = bookingRepository.getAllByBookerId(testUser.getId(), TEST_TIME, REQ);
         assertNotNull(result);
         assertEquals(1, result.size());
     }
 
+    @Test
+    void testFindLastBookings() {
+        Booking pastBooking = createTestBooking(START.minusMonths(6), END.minusMonths(6), State.APPROVED);
+        createTestBooking(START.minusMonths(4), END.minusMonths(4), State.APPROVED);
+
+        List<BookingShortDto> result = bookingRepository.findLastBookings(List.of(testItem.getId()),
+                LocalDateTime.now());
+        assertEquals(1, result.size());
+        assertEquals(testItem.getId(), result.get(0).getItemId());
+        assertEquals(pastBooking.getId(), result.get(0).getId());
+        assertEquals(testUser.getId(), result.get(0).getBookerId());
+    }
+
+    @Test
+    void testFindNextBookings() {
+        List<BookingShortDto> result = bookingRepository.findNextBookings(List.of(testItem.getId()),
+                LocalDateTime.now());
+        assertEquals(1, result.size());
+        assertEquals(testItem.getId(), result.get(0).getItemId());
+        assertEquals(nextBooking.getId(), result.get(0).getId());
+        assertEquals(testUser.getId(), result.get(0).getBookerId());
+    }
+
+    @Test
+    void testFindNextBookingsTakesLatestEndThenSmallestId() {
+        Booking sameEnd = createTestBooking(START.plusMonths(4), END.plusMonths(3), State.WAITING);
+        Item otherItem = createTestItem(testOwner);
+
+        List<BookingShortDto> result = bookingRepository.findNextBookings(List.of(testItem.getId(),
+                otherItem.getId()), LocalDateTime.now());
+        assertEquals(1, result.size());
+        //equal end dates: the booking created first is kept
+        assertTrue(nextBooking.getId() < sameEnd.getId());
+        assertEquals(nextBooking.getId(), result.get(0).getId());
+    }
+
+    @Test
+    void testFindHeldByItemIdIn() {
+        createTestBooking(START, END, State.REJECTED);
+
+        //nextBooking starts after the period, the rejected booking holds nothing
+        List<HeldPeriodDto> result = bookingRepository.findHeldByItemIdIn(List.of(testItem.getId()), State.HOLDING,
+                START, START.plusMonths(2));
+        assertEquals(1, result.size());
+        assertEquals(testItem.getId(), result.get(0).getItemId());
+        assertEquals(lastBooking.getStart().truncatedTo(ChronoUnit.MILLIS),
+                result.get(0).getStart().truncatedTo(ChronoUnit.MILLIS));
+    }
+
+    @Test
+    void testFindAllByBookerIdAfterWalksAllPages() {
+        //bookings with equal start are ordered by id
+        createTestBooking(START, END, State.WAITING);
+        createTestBooking(START.plusMonths(1), END.plusMonths(1), State.APPROVED);
+        List<BookingInfoDto> expected = new ArrayList<>(
+                bookingRepository.findAllByBookerId(testUser.getId(), REQ));
+        expected.sort(Comparator.comparing(BookingInfoDto::getStart).thenComparing(BookingInfoDto::getId).reversed());
+
+        //cursors are built from rows as stored, not from the persisted instances with nanosecond dates
+        em.flush();
+        em.clear();
+        List<BookingInfoDto> walked = new ArrayList<>();
+        PageCursor cursor = PageCursor.latest();
+        for (int i = 0; i < 10; i++) {
+            List<BookingInfoDto> page = bookingRepository.findAllByBookerIdAfter(testUser.getId(), cursor.getKey(),
+                    cursor.getId(), CustomPageRequest.of(0, 2));
+            walked.addAll(page);
+            if (page.size() < 2) {
+                break;
+            }
+            BookingInfoDto last = page.get(page.size() - 1);
+            cursor = PageCursor.of(last.getStart(), last.getId());
+        }
+
+        assertEquals(4, walked.size());
+        assertEquals(expected.stream().map(BookingInfoDto::getId).collect(Collectors.toList()),
+                walked.stream().map(BookingInfoDto::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void testFindAllByOwnerIdSortedByPageRequest() {
+        Booking sameStart = createTestBooking(START, END, State.WAITING);
+        CustomPageRequest page = CustomPageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "start", "id"));
+
+        List<BookingInfoDto> result = bookingRepository.findAllByOwnerId(testOwner.getId(), page);
+        assertEquals(2, result.size());
+        assertEquals(sameStart.getId(), result.get(0).getId());
+        assertEquals(lastBooking.getId(), result.get(1).getId());
+    }
+
+    @Test
+    void testFindByOwnerIdAndStatusAfter() {
+        List<BookingInfoDto> result = bookingRepository.findByOwnerIdAndStatusAfter(testOwner.getId(),
+                nextBooking.getStart(), nextBooking.getId(), State.APPROVED, REQ);
+        assertEquals(1, result.size());
+        assertEquals(lastBooking.getId(), result.get(0).getId());
+    }
+
+    @Test
+    void testRowsInsertedWithoutIdDoNotTakeIdsOfServer() {
+        //a bulk load writes past the server, each row takes an id from the column default
+        for (int i = 0; i < 60; i++) {
+            em.getEntityManager().createNativeQuery("insert into bookings (start_date, end_date, item_id, " +
+                            "booker_id, booking_state) values (?1, ?2, ?3, ?4, 'APPROVED')")
+                    .setParameter(1, START.plusYears(1))
+                    .setParameter(2, END.plusYears(1))
+                    .setParameter(3, testItem.getId())
+                    .setParameter(4, testUser.getId())
+                    .executeUpdate();
+        }
+        for (int i = 0; i < 60; i++) {
+            createTestBooking(START.plusYears(2), END.plusYears(2), State.WAITING);
+        }
+        em.flush();
+
+        List<BookingInfoDto> bookings = bookingRepository.findAllByBookerId(testUser.getId(),
+                CustomPageRequest.of(0, 200));
+        assertEquals(122, bookings.size());
+        assertEquals(122, bookings.stream().map(BookingInfoDto::getId).distinct().count());
+    }
+
     private User createTestUser() {
         User user = new User();
         user.setName("TestUserName");
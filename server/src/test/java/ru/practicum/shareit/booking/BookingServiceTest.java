@@ -8,6 +8,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.shareit.custom.BookingNotFoundException;
+import ru.practicum.shareit.custom.BookingOverlapException;
 import ru.practicum.shareit.custom.CustomBadRequestException;
 import ru.practicum.shareit.custom.CustomPageRequest;
 import ru.practicum.shareit.custom.ItemNotFoundException;
@@ -23,11 +24,13 @@ import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.when;
 
@@ -41,8 +44,6 @@ public class BookingServiceTest {
     private UserRepository userRepository;
     @Mock
     private ItemRepository itemRepository;
-    @Mock
-    private BookingMapper bookingMapper;
 
     private static final LocalDateTime START = LocalDateTime.of(2023,
             1, 24, 8, 30, 10);
@@ -80,7 +81,7 @@ public class BookingServiceTest {
 
     @Test
     void testAddBooking() {
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(testItem));
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(testItem));
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(testBooker));
         when(bookingRepository.save(any())).thenReturn(testBooking);
 
@@ -98,13 +99,24 @@ public class BookingServiceTest {
 
     @Test
     void testAddBookingThrowsOwnershipException() {
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(testItem));
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(testItem));
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(testOwner));
 
         assertThrows(ValidateBookingOwnershipException.class, () -> bookingService.addBooking(testOwner.getId(),
                 BookingMapper.toBookingDto(testBooking)));
     }
 
+    @Test
+    void testAddBookingThrowsOverlapException() {
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(testItem));
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(testBooker));
+        when(bookingRepository.existsByItemIdAndStatusInAndStartBeforeAndEndAfter(testItem.getId(), State.HOLDING,
+                END, START)).thenReturn(true);
+
+        assertThrows(BookingOverlapException.class, () -> bookingService.addBooking(testBooker.getId(),
+                BookingMapper.toBookingDto(testBooking)));
+    }
+
     @Test
     void testAddBookingValidationOfAvailable() {
         testErrorItem.setAvailable(false);
@@ -128,15 +140,64 @@ public class BookingServiceTest {
                 BookingMapper.toBookingDto(testErrorBooking)));
     }
 
+    @Test
+    void testAddBookings() {
+        Booking nextBooking = new Booking(2L, END, END.plusDays(1), testItem, testBooker, State.WAITING);
+        when(userRepository.findById(testBooker.getId())).thenReturn(Optional.of(testBooker));
+        when(itemRepository.findAllByIdInForUpdate(Set.of(testItem.getId()))).thenReturn(List.of(testItem));
+        when(bookingRepository.findHeldByItemIdIn(Set.of(testItem.getId()), State.HOLDING, START, END.plusDays(1)))
+                .thenReturn(List.of());
+        when(bookingRepository.saveAll(anyList())).thenReturn(List.of(testBooking, nextBooking));
+
+        //one booking ends when the other one starts
+        List<BookingInfoDto> result = bookingService.addBookings(testBooker.getId(), List.of(
+                BookingMapper.toBookingDto(testBooking), BookingMapper.toBookingDto(nextBooking)));
+
+        assertEquals(List.of(BookingMapper.toBookingInfoDto(testBooking), BookingMapper.toBookingInfoDto(nextBooking)),
+                result);
+    }
+
+    @Test
+    void testAddBookingsThrowsOverlapWithinBatch() {
+        when(userRepository.findById(testBooker.getId())).thenReturn(Optional.of(testBooker));
+        when(itemRepository.findAllByIdInForUpdate(Set.of(testItem.getId()))).thenReturn(List.of(testItem));
+        when(bookingRepository.findHeldByItemIdIn(Set.of(testItem.getId()), State.HOLDING, START, END))
+                .thenReturn(List.of());
+        BookingDto overlapping = BookingMapper.toBookingDto(testBooking);
+        overlapping.setStart(START.plusDays(1));
+
+        assertThrows(BookingOverlapException.class, () -> bookingService.addBookings(testBooker.getId(),
+                List.of(BookingMapper.toBookingDto(testBooking), overlapping)));
+    }
+
+    @Test
+    void testAddBookingsThrowsOverlapWithStoredBooking() {
+        when(userRepository.findById(testBooker.getId())).thenReturn(Optional.of(testBooker));
+        when(itemRepository.findAllByIdInForUpdate(Set.of(testItem.getId()))).thenReturn(List.of(testItem));
+        when(bookingRepository.findHeldByItemIdIn(Set.of(testItem.getId()), State.HOLDING, START, END))
+                .thenReturn(List.of(new HeldPeriodDto(testItem.getId(), START, END)));
+
+        assertThrows(BookingOverlapException.class, () -> bookingService.addBookings(testBooker.getId(),
+                List.of(BookingMapper.toBookingDto(testBooking))));
+    }
+
+    @Test
+    void testAddBookingsThrowsNotFoundItem() {
+        when(userRepository.findById(testBooker.getId())).thenReturn(Optional.of(testBooker));
+        when(itemRepository.findAllByIdInForUpdate(Set.of(testItem.getId()))).thenReturn(List.of());
+
+        assertThrows(ItemNotFoundException.class, () -> bookingService.addBookings(testBooker.getId(),
+                List.of(BookingMapper.toBookingDto(testBooking))));
+    }
+
     @Test
     void testUpdateBooking() {
         Booking waitingBooking = new Booking(2L, START.plusMonths(1), END.plusMonths(2), testItem, testBooker,
                 State.WAITING);
         Booking approvedBooking = new Booking(2L, START.plusMonths(1), END.plusMonths(2), testItem, testBooker,
                 State.APPROVED);
-        when(bookingRepository.save(any())).thenReturn(waitingBooking);
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(waitingBooking));
-        when(bookingRepository.save(any())).thenReturn(approvedBooking);
+        when(bookingRepository.updateStatus(waitingBooking.getId(), State.WAITING, State.APPROVED)).thenReturn(1);
 
         BookingInfoDto bookingToUpdate = BookingMapper.toBookingInfoDto(approvedBooking);
         BookingInfoDto result = bookingService.updateBooking(testOwner.getId(), approvedBooking.getId(), true);
@@ -162,6 +223,8 @@ public class BookingServiceTest {
     void testUpdateBookingValidationExceptionWhenApprovedState() {
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(testErrorBooking));
         testErrorBooking.setStatus(State.APPROVED);
+        //the conditional update finds no booking in WAITING
+        when(bookingRepository.updateStatus(testErrorBooking.getId(), State.WAITING, State.APPROVED)).thenReturn(0);
         assertThrows(CustomBadRequestException.class, () -> bookingService.updateBooking(testErrorOwner.getId(),
                 testErrorBooking.getId(), true));
     }
@@ -170,6 +233,8 @@ public class BookingServiceTest {
     void testUpdateBookingValidationExceptionWhenRejectedState() {
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(testErrorBooking));
         testErrorBooking.setStatus(State.REJECTED);
+        //the conditional update finds no booking in WAITING
+        when(bookingRepository.updateStatus(testErrorBooking.getId(), State.WAITING, State.APPROVED)).thenReturn(0);
         assertThrows(CustomBadRequestException.class, () -> bookingService.updateBooking(testErrorOwner.getId(),
                 testErrorBooking.getId(), true));
     }
@@ -218,7 +283,7 @@ public class BookingServiceTest {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(testBooker));
         Collection<BookingInfoDto> allBookings = List.of(BookingMapper.toBookingInfoDto(testBooking));
 
-        when(bookingRepository.getAllByBookerId(anyLong(), any(), any())).thenReturn(List.of(testBooking));
+        when(bookingRepository.getAllByBookerId(anyLong(), any(), any())).thenReturn(List.copyOf(allBookings));
         Collection<BookingInfoDto> resultCurrent = bookingService.getAllByUserId(testOwner.getId(), "CURRENT",
                 REQ);
         assertNotNull(resultCurrent);
@@ -230,7 +295,7 @@ public class BookingServiceTest {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(testBooker));
         Collection<BookingInfoDto> allBookings = List.of(BookingMapper.toBookingInfoDto(testBooking));
 
-        when(bookingRepository.findAllByBookerIdOrderByStartDesc(anyLong(), any())).thenReturn(List.of(testBooking));
+        when(bookingRepository.findAllByBookerId(anyLong(), any())).thenReturn(List.copyOf(allBookings));
         Collection<BookingInfoDto> resultAll = bookingService.getAllByUserId(testOwner.getId(), "ALL", REQ);
         assertNotNull(resultAll);
         assertEquals(allBookings, resultAll);
@@ -241,8 +306,8 @@ public class BookingServiceTest {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(testBooker));
         Collection<BookingInfoDto> allBookings = List.of(BookingMapper.toBookingInfoDto(testBooking));
 
-        when(bookingRepository.findAllByBookerIdAndStartAfterOrderByStartDesc(anyLong(), any(), any()))
-                .thenReturn(List.of(testBooking));
+        when(bookingRepository.findAllByBookerIdAndStartAfter(anyLong(), any(), any()))
+                .thenReturn(List.copyOf(allBookings));
         Collection<BookingInfoDto> resultFuture = bookingService.getAllByUserId(testOwner.getId(), "FUTURE", REQ);
         assertNotNull(resultFuture);
         assertEquals(allBookings, resultFuture);
@@ -253,8 +318,8 @@ public class BookingServiceTest {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(testBooker));
         Collection<BookingInfoDto> allBookings = List.of(BookingMapper.toBookingInfoDto(testBooking));
 
-        when(bookingRepository.findAllByBookerIdAndEndBeforeOrderByStartDesc(anyLong(), any(), any()))
-                .thenReturn(List.of(testBooking));
+        when(bookingRepository.findAllByBookerIdAndEndBefore(anyLong(), any(), any()))
+                .thenReturn(List.copyOf(allBookings));
         Collection<BookingInfoDto> resultPast = bookingService.getAllByUserId(testOwner.getId(), "PAST", REQ);
         assertNotNull(resultPast);
         assertEquals(allBookings, resultPast);
@@ -279,7 +344,7 @@ public class BookingServiceTest {
 
         Collection<BookingInfoDto> allBookings = List.of(BookingMapper.toBookingInfoDto(testBooking));
 
-        when(bookingRepository.getCurrentBookingsByOwnerId(anyLong(), any(), any())).thenReturn(List.of(testBooking));
+        when(bookingRepository.getCurrentBookingsByOwnerId(anyLong(), any(), any())).thenReturn(List.copyOf(allBookings));
         Collection<BookingInfoDto> resultCurrent = bookingService.getAllByOwnerId(testOwner.getId(), "CURRENT",
                 REQ);
         assertNotNull(resultCurrent);
@@ -292,7 +357,7 @@ public class BookingServiceTest {
 
         Collection<BookingInfoDto> allBookings = List.of(BookingMapper.toBookingInfoDto(testBooking));
 
-        when(bookingRepository.findAllByOwnerId(anyLong(), any())).thenReturn(List.of(testBooking));
+        when(bookingRepository.findAllByOwnerId(anyLong(), any())).thenReturn(List.copyOf(allBookings));
         Collection<BookingInfoDto> resultAll = bookingService.getAllByOwnerId(testOwner.getId(), "ALL", REQ);
         assertNotNull(resultAll);
         assertEquals(allBookings, resultAll);
@@ -305,7 +370,7 @@ public class BookingServiceTest {
         Collection<BookingInfoDto> allBookings = List.of(BookingMapper.toBookingInfoDto(testBooking));
 
         when(bookingRepository.getFutureBookingsByOwnerId(anyLong(), any(), any()))
-                .thenReturn(List.of(testBooking));
+                .thenReturn(List.copyOf(allBookings));
         Collection<BookingInfoDto> resultFuture = bookingService.getAllByOwnerId(testOwner.getId(), "FUTURE", REQ);
         assertNotNull(resultFuture);
         assertEquals(allBookings, resultFuture);
@@ -318,7 +383,7 @@ public class BookingServiceTest {
         Collection<BookingInfoDto> allBookings = List.of(BookingMapper.toBookingInfoDto(testBooking));
 
         when(bookingRepository.getPastBookingsByOwnerId(anyLong(), any(), any()))
-                .thenReturn(List.of(testBooking));
+                .thenReturn(List.copyOf(allBookings));
         Collection<BookingInfoDto> resultPast = bookingService.getAllByOwnerId(testOwner.getId(), "PAST", REQ);
         assertNotNull(resultPast);
         assertEquals(allBookings, resultPast);
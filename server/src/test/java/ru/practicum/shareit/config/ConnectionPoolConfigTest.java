@@ -0,0 +1,36 @@
+package ru.practicum.shareit.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {"SHAREIT_DB_POOL_SIZE=4", "SHAREIT_DB_LEAK_DETECTION=5000"})
+public class ConnectionPoolConfigTest {
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private ApplicationContext context;
+
+    @Test
+    void testPoolIsConfiguredFromEnvironment() {
+        HikariDataSource hikari = (HikariDataSource) dataSource;
+
+        assertEquals("shareit", hikari.getPoolName());
+        assertEquals(4, hikari.getMaximumPoolSize());
+        assertEquals(5000, hikari.getLeakDetectionThreshold());
+        assertEquals("256", hikari.getDataSourceProperties().getProperty("preparedStatementCacheQueries"));
+    }
+
+    @Test
+    void testOpenInViewIsDisabled() {
+        assertTrue(context.getBeansOfType(OpenEntityManagerInViewInterceptor.class).isEmpty());
+    }
+}
@@ -0,0 +1,157 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.custom.ItemNotFoundException;
+import ru.practicum.shareit.custom.UserNotFoundException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemInfoDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserService;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//without @Transactional: every service call gets its own persistence context, so reads reach the second level
+@SpringBootTest
+public class EntityCacheTest {
+    @Autowired
+    @Qualifier("DefaultUserService")
+    private UserService userService;
+    @Autowired
+    @Qualifier("DefaultItemService")
+    private ItemService itemService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+    private Cache cache;
+    private UserDto owner;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        cache = entityManagerFactory.getCache();
+        owner = userService.addUser(createTestUserDto());
+    }
+
+    @AfterEach
+    void tearDown() {
+        try {
+            userService.deleteUser(owner.getId());
+        } catch (UserNotFoundException ignored) {
+            //удалён самим тестом
+        }
+    }
+
+    @Test
+    void testUserIsReadFromCache() {
+        userService.getById(owner.getId());
+        userService.getById(owner.getId());
+
+        assertTrue(statistics.getDomainDataRegionStatistics(EntityCacheConfig.USERS_REGION).getHitCount() >= 1);
+        assertNotNull(meterRegistry.find("hibernate.second.level.cache.requests")
+                .tag("region", EntityCacheConfig.USERS_REGION).tag("result", "hit").functionCounter());
+    }
+
+    @Test
+    void testUpdateUserRefreshesCache() {
+        userService.getById(owner.getId());
+        userService.updateUser(owner.getId(), UserDto.builder().name("UpdatedName").build());
+
+        assertEquals("UpdatedName", userService.getById(owner.getId()).getName());
+    }
+
+    @Test
+    void testUpdateItemRefreshesCache() {
+        ItemInfoDto item = itemService.addItem(owner.getId(), createTestItemDto());
+        itemService.getById(item.getId(), owner.getId());
+        itemService.updateItem(owner.getId(), item.getId(), ItemDto.builder().name("UpdatedItem").build());
+
+        assertEquals("UpdatedItem", itemService.getById(item.getId(), owner.getId()).getName());
+    }
+
+    @Test
+    void testDeleteItemEvictsItem() {
+        ItemInfoDto item = itemService.addItem(owner.getId(), createTestItemDto());
+        itemService.getById(item.getId(), owner.getId());
+        assertTrue(cache.contains(Item.class, item.getId()));
+
+        itemService.deleteItem(item.getId());
+        assertThrows(ItemNotFoundException.class, () -> itemService.getById(item.getId(), owner.getId()));
+    }
+
+    @Test
+    void testDeleteUserEvictsUserItems() {
+        UserDto reader = userService.addUser(createTestUserDto());
+        ItemInfoDto item = itemService.addItem(owner.getId(), createTestItemDto());
+        itemService.getById(item.getId(), reader.getId());
+        assertTrue(cache.contains(Item.class, item.getId()));
+
+        userService.deleteUser(owner.getId());
+        assertFalse(cache.contains(Item.class, item.getId()));
+        assertThrows(UserNotFoundException.class, () -> userService.getById(owner.getId()));
+        assertThrows(ItemNotFoundException.class, () -> itemService.getById(item.getId(), reader.getId()));
+        userService.deleteUser(reader.getId());
+    }
+
+    @Test
+    void testDeleteUserEvictsUserItemsAfterCommit() {
+        UserDto reader = userService.addUser(createTestUserDto());
+        ItemInfoDto item = itemService.addItem(owner.getId(), createTestItemDto());
+        itemService.getById(item.getId(), reader.getId());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            userService.deleteUser(owner.getId());
+            assertTrue(cache.contains(Item.class, item.getId()));
+        });
+        assertFalse(cache.contains(Item.class, item.getId()));
+        userService.deleteUser(reader.getId());
+    }
+
+    @Test
+    void testRolledBackDeleteUserKeepsUserItems() {
+        ItemInfoDto item = itemService.addItem(owner.getId(), createTestItemDto());
+        itemService.getById(item.getId(), owner.getId());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            userService.deleteUser(owner.getId());
+            status.setRollbackOnly();
+        });
+        assertTrue(cache.contains(Item.class, item.getId()));
+        assertEquals(item.getName(), itemService.getById(item.getId(), owner.getId()).getName());
+    }
+
+    private UserDto createTestUserDto() {
+        String name = "CacheUser" + UUID.randomUUID();
+        return UserDto.builder().name(name).email(name + "@test.com").build();
+    }
+
+    private ItemDto createTestItemDto() {
+        return ItemDto.builder().name("CacheItem").description("CacheItemDescription").available(true).build();
+    }
+}
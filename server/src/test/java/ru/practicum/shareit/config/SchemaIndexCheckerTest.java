@@ -0,0 +1,63 @@
+package ru.practicum.shareit.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class SchemaIndexCheckerTest {
+    @Autowired
+    private SchemaIndexChecker schemaIndexChecker;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testNoMissingIndexes() {
+        assertTrue(schemaIndexChecker.findMissingIndexes().isEmpty());
+    }
+
+    @Test
+    void testMissingIndexIsFlagged() {
+        jdbcTemplate.execute("drop index idx_items_owner");
+        try {
+            assertEquals(List.of("idx_items_owner"), schemaIndexChecker.findMissingIndexes());
+        } finally {
+            jdbcTemplate.execute("create index idx_items_owner on items (owner_id)");
+        }
+    }
+
+    //the other indexes are for Postgres, which does not index foreign keys. H2 creates an index for every
+    //foreign key itself and plans the owner, request, comment, booker and requestor queries with those
+    @Test
+    void testLastBookingsUseIndex() throws NoSuchMethodException {
+        assertUsesIndex("findLastBookings", "IDX_BOOKINGS_ITEM_END_ASC");
+    }
+
+    @Test
+    void testNextBookingsUseIndex() throws NoSuchMethodException {
+        assertUsesIndex("findNextBookings", "IDX_BOOKINGS_ITEM_END_DESC");
+    }
+
+    //plan of the native query of the repository method, for two items and the current time
+    private void assertUsesIndex(String method, String index) throws NoSuchMethodException {
+        String sql = BookingRepository.class.getMethod(method, Collection.class, LocalDateTime.class)
+                .getAnnotation(Query.class).value()
+                .replace("?1", "1, 2")
+                .replace("?2", "current_timestamp");
+        String plan = jdbcTemplate.queryForObject("explain " + sql, String.class);
+        assertNotNull(plan);
+        assertTrue(plan.contains("/* PUBLIC." + index + ":"), plan);
+        assertTrue(plan.contains("index sorted"), plan);
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.custom;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CustomPageRequestTest {
+
+    @Test
+    void testWithSortKeepsOffset() {
+        CustomPageRequest page = CustomPageRequest.of(3, 2).withSort(Sort.by("id"));
+
+        assertEquals(3, page.getOffset());
+        assertEquals(2, page.getPageSize());
+        assertEquals(Sort.by("id"), page.getSort());
+    }
+}
@@ -0,0 +1,57 @@
+package ru.practicum.shareit.custom;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PageCursorTest {
+
+    @Test
+    void testEncodeAndDecode() {
+        PageCursor cursor = PageCursor.of(LocalDateTime.of(2023, 1, 24, 8, 30, 10, 500), 42L);
+        String token = cursor.encode();
+
+        assertFalse(token.contains("|"));
+        assertEquals(cursor, PageCursor.decode(token));
+    }
+
+    @Test
+    void testEncodeAndDecodeIdOnly() {
+        PageCursor cursor = PageCursor.of(7L);
+        assertEquals(cursor, PageCursor.decodeId(cursor.encode()));
+    }
+
+    @Test
+    void testDecodeBlankIsFirstPage() {
+        assertNull(PageCursor.decode(""));
+        assertNull(PageCursor.decode(null));
+        assertNull(PageCursor.decodeId(""));
+    }
+
+    @Test
+    void testDecodeMalformed() {
+        assertThrows(CustomBadRequestException.class, () -> PageCursor.decode("not a cursor"));
+        assertThrows(CustomBadRequestException.class, () -> PageCursor.decode("YWJjfGRlZg"));
+    }
+
+    @Test
+    void testDecodeCursorOfAnotherList() {
+        String idOnly = PageCursor.of(7L).encode();
+        String keyed = PageCursor.of(LocalDateTime.of(2023, 1, 24, 8, 30), 7L).encode();
+
+        assertThrows(CustomBadRequestException.class, () -> PageCursor.decode(idOnly));
+        assertThrows(CustomBadRequestException.class, () -> PageCursor.decodeId(keyed));
+    }
+
+    @Test
+    void testDecodeNonPositiveId() {
+        assertThrows(CustomBadRequestException.class, () -> PageCursor.decodeId(PageCursor.of(0L).encode()));
+        assertThrows(CustomBadRequestException.class,
+                () -> PageCursor.decode(PageCursor.of(LocalDateTime.of(2023, 1, 24, 8, 30), -1L).encode()));
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class FullTextItemSearchEngineTest {
+
+    @Test
+    void testToPrefixQuery() {
+        assertEquals("дрель:* & акк:*", FullTextItemSearchEngine.toPrefixQuery("ДРЕЛЬ  Акк"));
+    }
+
+    @Test
+    void testToPrefixQueryDropsOperators() {
+        assertEquals("a:* & b:*", FullTextItemSearchEngine.toPrefixQuery("a & !b:*"));
+    }
+
+    @Test
+    void testToPrefixQueryBlank() {
+        assertEquals("", FullTextItemSearchEngine.toPrefixQuery(" ! "));
+    }
+}
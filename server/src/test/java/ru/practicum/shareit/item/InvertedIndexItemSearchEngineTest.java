@@ -0,0 +1,132 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.custom.CustomPageRequest;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserService;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//services commit their own transactions: the index is only changed after a commit
+@SpringBootTest(properties = "shareit.search.mode=index")
+public class InvertedIndexItemSearchEngineTest {
+    @Autowired
+    @Qualifier("DefaultItemService")
+    private ItemService itemService;
+    @Autowired
+    private InvertedIndexItemSearchEngine searchEngine;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    @Qualifier("DefaultUserService")
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    private static final CustomPageRequest REQ = CustomPageRequest.of(0, 10);
+
+    private User testOwner;
+
+    @BeforeEach
+    void setUp() {
+        testOwner = userRepository.save(new User(null, "IndexOwner", "index_owner@test.com"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (userRepository.existsById(testOwner.getId())) {
+            userService.deleteUser(testOwner.getId());
+        }
+    }
+
+    @Test
+    void testAddedItemIsFound() {
+        ItemInfoDto added = itemService.addItem(testOwner.getId(),
+                new ItemDto(null, null, "Перфоратор", "Мощный перфоратор", true));
+
+        List<ItemInfoDto> result = itemService.searchItem("перфо", REQ);
+
+        assertEquals(1, result.size());
+        assertEquals(added.getId(), result.get(0).getId());
+    }
+
+    @Test
+    void testUnavailableItemIsNotFound() {
+        ItemInfoDto added = itemService.addItem(testOwner.getId(),
+                new ItemDto(null, null, "Стремянка", "Стремянка", true));
+        itemService.updateItem(testOwner.getId(), added.getId(), new ItemDto(null, null, null, null, false));
+
+        assertTrue(itemService.searchItem("стремянка", REQ).isEmpty());
+    }
+
+    @Test
+    void testDeletedItemIsNotFound() {
+        ItemInfoDto added = itemService.addItem(testOwner.getId(),
+                new ItemDto(null, null, "Болгарка", "Болгарка", true));
+        itemService.deleteItem(added.getId());
+
+        assertTrue(itemService.searchItem("болгарка", REQ).isEmpty());
+    }
+
+    @Test
+    void testRolledBackItemIsNotIndexed() {
+        int indexed = searchEngine.size();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            itemService.addItem(testOwner.getId(), new ItemDto(null, null, "Лобзик", "Лобзик", true));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(indexed, searchEngine.size());
+        assertTrue(itemService.searchItem("лобзик", REQ).isEmpty());
+    }
+
+    @Test
+    void testItemsOfDeletedOwnerAreRemoved() {
+        int indexed = searchEngine.size();
+        itemService.addItem(testOwner.getId(), new ItemDto(null, null, "Шуруповерт", "Шуруповерт", true));
+        itemService.addItem(testOwner.getId(), new ItemDto(null, null, "Шуруповерт", "Шуруповерт", true));
+
+        userService.deleteUser(testOwner.getId());
+
+        assertEquals(indexed, searchEngine.size());
+        assertTrue(searchEngine.search("шуруповерт", REQ).isEmpty());
+    }
+
+    @Test
+    void testItemDeletedPastServicesDoesNotShortenPage() {
+        for (int i = 0; i < 3; i++) {
+            itemService.addItem(testOwner.getId(), new ItemDto(null, null, "Рулетка", "Рулетка", true));
+        }
+        List<Item> firstPage = searchEngine.search("рулетка", CustomPageRequest.of(0, 2));
+        itemRepository.deleteById(firstPage.get(0).getId());
+
+        List<Item> result = searchEngine.search("рулетка", CustomPageRequest.of(0, 2));
+
+        assertEquals(2, result.size());
+        assertEquals(firstPage.get(1).getId(), result.get(0).getId());
+    }
+
+    @Test
+    void testRebuild() {
+        Item item = itemRepository.save(new Item(null, "Рубанок", "Рубанок", true, testOwner, null, null));
+        assertTrue(searchEngine.search("рубанок", REQ).isEmpty());
+
+        searchEngine.rebuild();
+
+        List<Item> result = searchEngine.search("рубанок", REQ);
+        assertEquals(1, result.size());
+        assertEquals(item.getId(), result.get(0).getId());
+    }
+}
@@ -8,19 +8,26 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
+import ru.practicum.shareit.booking.AvailabilityWindowDto;
 import ru.practicum.shareit.custom.CustomPageRequest;
+import ru.practicum.shareit.custom.PageCursor;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserMapper;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.function.Predicate;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -28,6 +35,8 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -54,7 +63,7 @@ public class ItemControllerTest {
         ItemInfoDto.ItemBookingDto lastBooking = new ItemInfoDto.ItemBookingDto(1L, 1L);
         ItemInfoDto.ItemBookingDto nextBooking = new ItemInfoDto.ItemBookingDto(2L, 1L);
         testItemInfoDto = new ItemInfoDto(1L, "ItemNameX", "ItemDescriptionX",
-                true, testOwner, lastBooking,
+                true, UserMapper.toUserDto(testOwner), lastBooking,
                 nextBooking, Arrays.asList(testComment), 2L);
     }
 
@@ -97,7 +106,7 @@ public class ItemControllerTest {
 
     @Test
     void testGetById() throws Exception {
-        when(itemService.getById(anyLong(), anyLong())).thenReturn(testItemInfoDto);
+        when(itemService.getById(anyLong(), anyLong(), any())).thenReturn(testItemInfoDto);
 
         mockMvc.perform(get("/items/{itemId}", testItemInfoDto.getId())
                         .header("X-Sharer-User-Id", 1L)
@@ -118,7 +127,47 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.comments", hasSize(1)))
                 .andDo(MockMvcResultHandlers.print());
 
-        verify(itemService, times(1)).getById(anyLong(), anyLong());
+        verify(itemService, times(1)).getById(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void testGetByIdNotModified() throws Exception {
+        //the service answers with the view only if the request does not match its tag
+        when(itemService.getById(anyLong(), anyLong(), any())).thenAnswer(invocation ->
+                invocation.<Predicate<String>>getArgument(2).test("\"etag\"") ? null : testItemInfoDto);
+
+        mockMvc.perform(get("/items/{itemId}", testItemInfoDto.getId())
+                        .header("X-Sharer-User-Id", 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"etag\"")
+                        .accept(MediaType.APPLICATION_JSON))
+
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"etag\""))
+                .andExpect(content().string(""));
+
+        verify(itemService, times(1)).getById(anyLong(), anyLong(), any());
+        verify(itemService, never()).getById(anyLong(), anyLong());
+    }
+
+    @Test
+    void testGetFreeWindows() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2023, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(10);
+        when(itemService.getFreeWindows(1L, 1L, from, to))
+                .thenReturn(Arrays.asList(new AvailabilityWindowDto(from, from.plusDays(2)),
+                        new AvailabilityWindowDto(from.plusDays(5), to)));
+
+        mockMvc.perform(get("/items/{itemId}/availability", 1L)
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("from", from.toString())
+                        .param("to", to.toString())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].start").value("2023-01-01T00:00:00"))
+                .andExpect(jsonPath("$[1].end").value("2023-01-11T00:00:00"));
+
+        verify(itemService, times(1)).getFreeWindows(1L, 1L, from, to);
     }
 
     @Test
@@ -139,6 +188,17 @@ public class ItemControllerTest {
         verify(itemService, times(1)).getAll(1L, CustomPageRequest.of(0, 10));
     }
 
+    @Test
+    void testGetAllWithBookingCursor() throws Exception {
+        mockMvc.perform(get("/items")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("cursor", PageCursor.of(LocalDateTime.of(2023, 1, 1, 0, 0), 5L).encode())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        verify(itemService, never()).getAllAfter(anyLong(), any(), anyInt());
+    }
+
     @Test
     void testDeleteItem() throws Exception {
         Long toDelete = 1L;
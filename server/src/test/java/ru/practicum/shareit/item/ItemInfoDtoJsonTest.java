@@ -5,7 +5,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.json.JsonTest;
 import org.springframework.boot.test.json.JacksonTester;
 import org.springframework.boot.test.json.JsonContent;
-import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserDto;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -20,7 +20,7 @@ public class ItemInfoDtoJsonTest {
 
     @Test
     void testItemInfoDto() throws IOException {
-        User user = new User(1L, "UserName", "user@user.com");
+        UserDto user = new UserDto(1L, "UserName", "user@user.com");
         ItemInfoDto itemInfoDto = new ItemInfoDto(1L, "TestName", "TestDescription", true,
                 user, null, null, new ArrayList<>(), 2L);
 
@@ -1,25 +1,29 @@
 package ru.practicum.shareit.item;
 
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.config.EntityCacheConfig;
 import ru.practicum.shareit.custom.CustomPageRequest;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.user.User;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
+@Import(EntityCacheConfig.class)
 public class ItemRepositoryTest {
     @Autowired
     private TestEntityManager em;
@@ -63,28 +67,68 @@ public class ItemRepositoryTest {
         assertEquals(testItem.getRequestId(), result.get(0).getRequestId());
     }
 
+    @Test
+    public void testFindAllByRequestIdIn() {
+        ItemRequest otherRequest = createTestRequest(testRequester);
+        Item otherItem = createTestItem(true, testOwner, otherRequest.getId());
+        createTestItem(true, testOwner, null);
+
+        List<Item> result = itemRepository.findAllByRequestIdIn(List.of(testRequest.getId(), otherRequest.getId()));
+
+        assertNotNull(result);
+        assertEquals(2, result.size());
+        assertTrue(result.stream().anyMatch(item -> item.getId().equals(testItem.getId())));
+        assertTrue(result.stream().anyMatch(item -> item.getId().equals(otherItem.getId())));
+    }
+
     @Test
     public void testExistsByOwnerId() {
         assertTrue(itemRepository.existsByOwnerId(testOwner.getId()));
     }
 
     @Test
-    public void testFindByNameContainsOrDescriptionContainsIgnoreCase() {
-        Collection<Item> result =
-                itemRepository.findByNameContainsOrDescriptionContainsIgnoreCase(
-                        "est", "Descript", REQ);
-        List<Item> resultList = new ArrayList<>(result);
+    public void testSearchAvailable() {
+        List<Item> result = itemRepository.searchAvailable("tEsTnAmE", REQ);
 
-        assertNotNull(resultList);
-        assertEquals(1, resultList.size());
-        assertEquals(testItem.getName(), resultList.get(0).getName());
-        assertEquals(testItem.getDescription(), resultList.get(0).getDescription());
+        assertNotNull(result);
+        assertEquals(1, result.size());
+        assertEquals(testItem.getName(), result.get(0).getName());
+        assertEquals(testItem.getDescription(), result.get(0).getDescription());
+    }
+
+    @Test
+    public void testSearchAvailableByDescription() {
+        List<Item> result = itemRepository.searchAvailable("descript", REQ);
+
+        assertEquals(1, result.size());
+        assertEquals(testItem.getId(), result.get(0).getId());
+    }
+
+    @Test
+    public void testSearchAvailableSkipsUnavailable() {
+        createTestItem(false, testOwner, null);
+        Item available = createTestItem(true, testOwner, null);
+
+        List<Item> result = itemRepository.searchAvailable("TestName", CustomPageRequest.of(1, 1));
+
+        assertEquals(1, result.size());
+        assertEquals(available.getId(), result.get(0).getId());
+    }
+
+    @Test
+    public void testSearchTreatsWildcardsLiterally() {
+        LikeItemSearchEngine searchEngine = new LikeItemSearchEngine(itemRepository);
+        Item percent = createTestItem(true, testOwner, null);
+        percent.setName("Discount 50%");
+
+        assertEquals(List.of(), searchEngine.search("_", REQ));
+        assertEquals(List.of(), searchEngine.search("5%0", REQ));
+        assertEquals(List.of(percent), searchEngine.search("50%", REQ));
     }
 
     @Test
     public void testFindByOwnerId() {
-        Collection<Item> result = itemRepository.findByOwnerId(testOwner.getId(), REQ);
-        List<Item> resultList = new ArrayList<>(result);
+        List<ItemInfoDto> resultList = itemRepository.findByOwnerId(testOwner.getId(), REQ);
 
         assertNotNull(resultList);
         assertEquals(1, resultList.size());
@@ -92,9 +136,30 @@ public class ItemRepositoryTest {
         assertEquals(testItem.getName(), resultList.get(0).getName());
         assertEquals(testItem.getAvailable(), resultList.get(0).getAvailable());
         assertEquals(testItem.getOwner().getId(), resultList.get(0).getOwner().getId());
+        assertEquals(testOwner.getEmail(), resultList.get(0).getOwner().getEmail());
         assertEquals(testItem.getRequestId(), resultList.get(0).getRequestId());
     }
 
+    @Test
+    public void testCommentsAreLoadedLazilyForAllItemsOfThePage() {
+        Item otherItem = createTestItem(true, testOwner, null);
+        createTestComment(testItem, "First");
+        createTestComment(testItem, "Second");
+        createTestComment(otherItem, "Other");
+        em.flush();
+        em.clear();
+
+        List<Item> result = itemRepository.findAllById(List.of(testItem.getId(), otherItem.getId()));
+        Item first = result.get(0).getId().equals(testItem.getId()) ? result.get(0) : result.get(1);
+        Item other = first == result.get(0) ? result.get(1) : result.get(0);
+        assertFalse(Hibernate.isInitialized(first.getComments()));
+        assertFalse(Hibernate.isInitialized(other.getComments()));
+
+        assertEquals(List.of("First", "Second"),
+                first.getComments().stream().map(Comment::getText).collect(Collectors.toList()));
+        assertTrue(Hibernate.isInitialized(other.getComments()));
+        assertEquals(1, other.getComments().size());
+    }
 
     private Item createTestItem(boolean available, User owner, Long requestId) {
         Item item = new Item();
@@ -106,6 +171,15 @@ public class ItemRepositoryTest {
         return em.persist(item);
     }
 
+    private Comment createTestComment(Item item, String text) {
+        Comment comment = new Comment();
+        comment.setText(text);
+        comment.setItemId(item.getId());
+        comment.setAuthor(testRequester);
+        comment.setCreated(LocalDateTime.now());
+        return em.persist(comment);
+    }
+
     private User createTestOwner() {
         User user = new User();
         user.setName("TestOwner");
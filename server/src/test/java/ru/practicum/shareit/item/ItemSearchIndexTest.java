@@ -0,0 +1,65 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ItemSearchIndexTest {
+    private ItemSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ItemSearchIndex();
+        index.put(3L, "Дрель", "Простая дрель");
+        index.put(1L, "Аккумуляторная дрель", "Дрель с аккумулятором");
+        index.put(2L, "Отвёртка", "Аккумуляторная отвёртка");
+    }
+
+    @Test
+    void testSearchByPrefixIgnoresCase() {
+        assertArrayEquals(new long[]{1L, 3L}, index.search("ДРЕ", 0, 10));
+    }
+
+    @Test
+    void testSearchIntersectsWords() {
+        assertArrayEquals(new long[]{1L}, index.search("дрель акк", 0, 10));
+    }
+
+    @Test
+    void testSearchPrefixMatchesSeveralTokens() {
+        assertArrayEquals(new long[]{1L, 2L}, index.search("аккум", 0, 10));
+    }
+
+    @Test
+    void testSearchPage() {
+        index.put(4L, "Дрель ударная", "Дрель");
+        assertArrayEquals(new long[]{3L, 4L}, index.search("дрель", 1, 2));
+        assertArrayEquals(new long[0], index.search("дрель", 10, 2));
+    }
+
+    @Test
+    void testSearchBlankText() {
+        assertArrayEquals(new long[0], index.search(" , ", 0, 10));
+    }
+
+    @Test
+    void testPutReplacesTokens() {
+        index.put(3L, "Пила", "Ручная пила");
+
+        assertArrayEquals(new long[]{1L}, index.search("дрель", 0, 10));
+        assertArrayEquals(new long[]{3L}, index.search("пила", 0, 10));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void testRemove() {
+        index.remove(1L);
+        index.remove(99L);
+
+        assertArrayEquals(new long[]{3L}, index.search("дрель", 0, 10));
+        assertArrayEquals(new long[0], index.search("аккумулятором", 0, 10));
+        assertEquals(2, index.size());
+    }
+}
@@ -1,11 +1,14 @@
 package ru.practicum.shareit.item;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.AvailabilityWindowDto;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.State;
@@ -19,7 +22,10 @@ import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 
+import javax.persistence.EntityManager;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -49,6 +55,8 @@ public class ItemServiceTest {
     private ItemMapper itemMapper;
     @Autowired
     private CommentMapper commentMapper;
+    @Autowired
+    private EntityManager entityManager;
     private static final CustomPageRequest REQ = CustomPageRequest.of(0, 10);
 
     private User testUser;
@@ -242,6 +250,48 @@ public class ItemServiceTest {
         assertEquals(testItemInfoDto.getOwner().getId(), result.getOwner().getId());
     }
 
+    @Test
+    void testGetByIdNotModifiedUntilBookingsChange() {
+        List<String> tags = new ArrayList<>();
+        assertNotNull(itemService.getById(testItem.getId(), testUser.getId(), tag -> {
+            tags.add(tag);
+            return false;
+        }));
+        String etag = tags.get(0);
+
+        assertNull(itemService.getById(testItem.getId(), testUser.getId(), etag::equals));
+        bookingRepository.save(new Booking(null, LocalDateTime.now().plusMonths(3),
+                LocalDateTime.now().plusMonths(4), testItem, testBooker, State.WAITING));
+        assertNotNull(itemService.getById(testItem.getId(), testUser.getId(), etag::equals));
+    }
+
+    @Test
+    void testGetFreeWindows() {
+        //after testBooking, and whole seconds, so the periods read back equal the ones saved
+        LocalDateTime from = testBooking.getEnd().plusMonths(1).truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime to = from.plusDays(30);
+        bookingRepository.save(new Booking(null, from.minusDays(1), from.plusDays(2), testItem, testBooker,
+                State.APPROVED));
+        bookingRepository.save(new Booking(null, from.plusDays(5), from.plusDays(7), testItem, testBooker,
+                State.WAITING));
+        bookingRepository.save(new Booking(null, from.plusDays(10), from.plusDays(12), testItem, testBooker,
+                State.REJECTED));
+        bookingRepository.save(new Booking(null, to.minusDays(1), to.plusDays(1), testItem, testBooker,
+                State.WAITING));
+
+        List<AvailabilityWindowDto> result = itemService.getFreeWindows(testItem.getId(), testBooker.getId(), from, to);
+
+        assertEquals(List.of(new AvailabilityWindowDto(from.plusDays(2), from.plusDays(5)),
+                new AvailabilityWindowDto(from.plusDays(7), to.minusDays(1))), result);
+    }
+
+    @Test
+    void testGetFreeWindowsThrowsEmptyPeriod() {
+        LocalDateTime from = LocalDateTime.now();
+        assertThrows(CustomBadRequestException.class, () -> itemService.getFreeWindows(testItem.getId(),
+                testBooker.getId(), from, from));
+    }
+
     @Test
     void testGetByIdNotFoundUser() {
         assertThrows(UserNotFoundException.class, () -> itemService.getById(testItem.getId(), 99L));
@@ -283,6 +333,44 @@ public class ItemServiceTest {
         assertEquals(testItemInfoDto.getOwner().getId(), result.get(0).getOwner().getId());
     }
 
+    @Test
+    void testGetAllQueryCountDoesNotDependOnPageSize() {
+        createTestItems(20);
+
+        long smallPage = countStatements(() -> itemService.getAll(testUser.getId(), CustomPageRequest.of(0, 5)));
+        long bigPage = countStatements(() -> itemService.getAll(testUser.getId(), CustomPageRequest.of(0, 20)));
+
+        assertEquals(smallPage, bigPage);
+    }
+
+    @Test
+    void testSearchItemQueryCountDoesNotDependOnPageSize() {
+        createTestItems(20);
+
+        long smallPage = countStatements(() -> itemService.searchItem("BulkItem", CustomPageRequest.of(0, 5)));
+        long bigPage = countStatements(() -> itemService.searchItem("BulkItem", CustomPageRequest.of(0, 20)));
+
+        assertEquals(smallPage, bigPage);
+    }
+
+    @Test
+    void testSearchItemQueryCountDoesNotDependOnBatchSize() {
+        //more items than @BatchSize(100) of comments and owners, each with an owner of its own
+        for (int i = 0; i < 120; i++) {
+            User owner = userRepository.save(new User(null, "BulkOwner_" + i, "bulk_" + i + "@test.com"));
+            Item item = itemRepository.save(new Item(null, "BulkItem_" + i, "BulkDescription_" + i,
+                    true, owner, null, null));
+            commentRepository.save(new Comment(null, "BulkText_" + i, item.getId(), testBooker,
+                    LocalDateTime.now()));
+        }
+
+        long smallPage = countStatements(() -> itemService.searchItem("BulkItem", CustomPageRequest.of(0, 5)));
+        long bigPage = countStatements(() -> assertEquals(120,
+                itemService.searchItem("BulkItem", CustomPageRequest.of(0, 120)).size()));
+
+        assertEquals(smallPage, bigPage);
+    }
+
     @Test
     void testGetAllThrowsNotFoundUser() {
         assertThrows(UserNotFoundException.class, () -> itemService.getAll(99L, REQ));
@@ -319,4 +407,27 @@ public class ItemServiceTest {
 
         assertTrue(result.isEmpty());
     }
-}
\ No newline at end of file
+
+    private void createTestItems(int count) {
+        for (int i = 0; i < count; i++) {
+            Item item = itemRepository.save(new Item(null, "BulkItem_" + i, "BulkDescription_" + i,
+                    true, testUser, null, null));
+            bookingRepository.save(new Booking(null, LocalDateTime.now().minusMonths(2),
+                    LocalDateTime.now().minusMonths(1), item, testBooker, State.APPROVED));
+            bookingRepository.save(new Booking(null, LocalDateTime.now().plusMonths(1),
+                    LocalDateTime.now().plusMonths(2), item, testBooker, State.WAITING));
+            commentRepository.save(new Comment(null, "BulkText_" + i, item.getId(), testBooker,
+                    LocalDateTime.now()));
+        }
+    }
+
+    private long countStatements(Runnable action) {
+        entityManager.flush();
+        entityManager.clear();
+        //statistics stay on, as hibernate.generate_statistics sets them: the metrics of the shared context read them
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -166,6 +166,31 @@ public class RequestServiceTest {
         assertEquals(result.size(), 0);
     }
 
+    @Test
+    void testGetAllRequestsNotOwnerGroupsItemsByRequest() {
+        ItemRequest otherRequest = itemRequestRepository.save(new ItemRequest(null, "Other_Description",
+                LocalDateTime.now(), testRequester));
+        Item otherItem = itemRepository.save(new Item(null, "OtherItem", "OtherDescription",
+                true, testOwner, otherRequest.getId(), null));
+        itemRequestRepository.save(new ItemRequest(null, "Empty_Description",
+                LocalDateTime.now(), testRequester));
+
+        List<ItemRequestInfoDto> result = requestService.getAllRequestsNotOwner(testOwner.getId(), REQ);
+
+        assertEquals(3, result.size());
+        for (ItemRequestInfoDto request : result) {
+            if (request.getId().equals(testRequest.getId())) {
+                assertEquals(1, request.getItems().size());
+                assertEquals(testItem.getId(), request.getItems().get(0).getId());
+            } else if (request.getId().equals(otherRequest.getId())) {
+                assertEquals(1, request.getItems().size());
+                assertEquals(otherItem.getId(), request.getItems().get(0).getId());
+            } else {
+                assertTrue(request.getItems().isEmpty());
+            }
+        }
+    }
+
     @Test
     void testGetAllRequestsNotOwnerNegativeUserId() {
         assertThrows(UserNotFoundException.class, () -> requestService.getAllRequestsNotOwner(-99L, REQ));
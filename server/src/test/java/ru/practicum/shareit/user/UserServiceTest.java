@@ -6,6 +6,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.config.EntityCacheEvictor;
+import ru.practicum.shareit.item.ItemSearchEngine;
 import ru.practicum.shareit.custom.UserNotFoundException;
 
 import java.util.Collections;
@@ -28,6 +30,10 @@ public class UserServiceTest {
     private UserServiceImpl userService;
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private EntityCacheEvictor entityCacheEvictor;
+    @Mock
+    private ItemSearchEngine itemSearchEngine;
     private static User testUser;
     private static User updatedTestUser;
 